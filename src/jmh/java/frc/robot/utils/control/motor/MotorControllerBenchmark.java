@@ -0,0 +1,177 @@
+package frc.robot.utils.control.motor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.robot.utils.control.MotionConfig;
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.pidf.PIDF;
+import frc.robot.utils.math.units.Quantity;
+import frc.robot.utils.math.units.Units;
+
+
+
+/**
+ * Benchmarks for the per-cycle command/read paths of BBMotorController
+ * through a stand-in controller (no hardware/JNI, just our own overhead)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MotorControllerBenchmark {
+    /** whether the controller measures position as an angle or a distance */
+    @Param({"Angle", "Distance"})
+    public String measurement;
+
+    /** sends every command (the same setpoint over and over would just be coalesced) */
+    private StandInMotorController motor;
+    /** coalesces repeated commands, like by default */
+    private StandInMotorController coalescedMotor;
+    private int velocityConfig;
+    private int positionConfig;
+    private MotionConfigHandle velocityHandle;
+    private Quantity velocity;
+
+    private SensorPoller poller;
+    private StandInMotorController polledMotor;
+    private SensorSnapshot snapshot;
+
+
+
+    @Setup
+    public void setup() {
+        motor = new StandInMotorController(1);
+        motor.setRadius(new Quantity(2, Units.IN));
+        motor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+        motor.setCommandCoalescing(false);
+
+        if (measurement.equals("Distance")) {
+            motor.setMeasurementToDistance();
+        }
+
+        velocityConfig = motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.1, 0, 0, 0.05)).controller(ControlType.Velocity)
+        );
+        positionConfig = motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.2, 0, 0, 0)).controller(ControlType.Position)
+        );
+
+        velocity = new Quantity(1.5, Units.RAD_PER_S);
+        velocityHandle = motor.getMotionConfigHandle(velocityConfig);
+
+        coalescedMotor = new StandInMotorController(3);
+        coalescedMotor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+        coalescedMotor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.1, 0, 0, 0.05)).controller(ControlType.Velocity)
+        );
+        coalescedMotor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.2, 0, 0, 0)).controller(ControlType.Position)
+        );
+
+        polledMotor = new StandInMotorController(2);
+        polledMotor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+        poller = new SensorPoller();
+        poller.register(polledMotor);
+        snapshot = new SensorSnapshot();
+    }
+
+
+
+    @Benchmark
+    public double cmdVelocity() {
+        motor.cmdVelocity(1.5, velocityConfig);
+
+        return motor.output;
+    }
+
+    @Benchmark
+    public double cmdVelocityHandle() {
+        motor.cmdVelocity(1.5, velocityHandle);
+
+        return motor.output;
+    }
+
+    @Benchmark
+    public double cmdVelocityByControlType() {
+        motor.cmdVelocity(1.5);
+
+        return motor.output;
+    }
+
+    @Benchmark
+    public double cmdVelocityQuantity() {
+        motor.cmdVelocity(velocity, velocityConfig);
+
+        return motor.output;
+    }
+
+    @Benchmark
+    public double cmdPosition() {
+        motor.cmdPosition(2.0, ControlType.Position, positionConfig);
+
+        return motor.output;
+    }
+
+    /** repeated setpoint, so everything after the first call is skipped */
+    @Benchmark
+    public double cmdVelocityCoalesced() {
+        coalescedMotor.cmdVelocity(1.5, velocityConfig);
+
+        return coalescedMotor.output;
+    }
+
+    @Benchmark
+    public double cmdPositionCoalesced() {
+        coalescedMotor.cmdPosition(2.0, ControlType.Position, positionConfig);
+
+        return coalescedMotor.output;
+    }
+
+    @Benchmark
+    public double getPosition() {
+        return motor.getPosition();
+    }
+
+    @Benchmark
+    public double getVelocity() {
+        return motor.getVelocity();
+    }
+
+
+
+    @Benchmark
+    public double refreshSensors() {
+        motor.refreshSensors();
+
+        return motor.getPosition_nu();
+    }
+
+    @Benchmark
+    public double refreshSensorsFromPoller() {
+        polledMotor.refreshSensors();
+
+        return polledMotor.getPosition_nu();
+    }
+
+    @Benchmark
+    public double pollerRead() {
+        SensorPoller.read(polledMotor, snapshot);
+
+        return snapshot.getPosition_nu();
+    }
+}
@@ -0,0 +1,75 @@
+package frc.robot.utils.control.motor;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+
+/**
+ * Benchmarks for MotorDiagnostics: what refreshSensors() pays to record every
+ * reading, and what taking a copy costs
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MotorDiagnosticsBenchmark {
+    @Param({"1000"})
+    public int capacity;
+
+    private MotorDiagnostics diagnostics;
+    private MotorDiagnostics copy;
+    private SensorSnapshot snapshot;
+
+    private long timestamp = 0;
+
+
+
+    @Setup
+    public void setup() {
+        diagnostics = new MotorDiagnostics(capacity);
+        copy = new MotorDiagnostics(capacity);
+
+        snapshot = new SensorSnapshot();
+
+        // full, so adding always overwrites like it does on the robot
+        for (int i = 0; i < capacity; i++) {
+            diagnostics.add(i, i, i, i, i, i);
+        }
+    }
+
+
+
+    @Benchmark
+    public long add() {
+        timestamp++;
+        diagnostics.add(timestamp, 1234, 56, 3.5, 12.1, 0.5);
+
+        return diagnostics.getAdded();
+    }
+
+    @Benchmark
+    public long addSnapshot() {
+        diagnostics.add(snapshot);
+
+        return diagnostics.getAdded();
+    }
+
+    @Benchmark
+    public int copyTo() {
+        return diagnostics.copyTo(copy);
+    }
+}
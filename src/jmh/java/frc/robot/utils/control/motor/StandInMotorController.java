@@ -0,0 +1,113 @@
+package frc.robot.utils.control.motor;
+
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.status.CANDeviceType;
+import frc.robot.utils.control.pidf.PID;
+import frc.robot.utils.control.pidf.PIDF;
+
+import frc.robot.utils.math.units.BaseUnit;
+import frc.robot.utils.math.units.Units;
+
+
+
+/**
+ * BBMotorController that doesn't talk to any hardware, so the conversion and
+ * bookkeeping in BBMotorController can be benchmarked on its own. Uses the same
+ * native units as a TalonSRX (ticks, per 100ms).
+ */
+public class StandInMotorController extends BBMotorController {
+    /** last value sent to the "motor", so commands can't be optimized away */
+    public double output;
+
+    private double position_nu = 1234;
+    private double velocity_nu = 56;
+
+    private BaseUnit tick;
+
+
+
+    public StandInMotorController(int deviceID) {
+        super(deviceID);
+    }
+
+
+
+    @Override
+    protected int getMaxMotionSlots() { return 2; }
+    @Override
+    protected CANDeviceType getCANDeviceType() { return CANDeviceType.TalonSRX; }
+
+    @Override
+    protected void clearPIDF(int slot) {}
+    @Override
+    protected void clearMotionMagic(int slot) {}
+    @Override
+    protected void loadPID(PID constants, int slot) {}
+    @Override
+    protected void loadPIDF(PIDF constants, int slot) {}
+    @Override
+    protected void loadMotionMagic(double acc, double vel, int slot) {}
+    @Override
+    public void selectMotionConfigSlot(int slot) {}
+
+
+
+    @Override
+    protected BaseUnit getThetaUnit_nu() {
+        if (sensor == null) {
+            return null;
+        }
+
+        if (tick == null) {
+            tick = new BaseUnit(Units.REV, sensor.getTicksPerRev(), "tick");
+        }
+
+        return tick;
+    }
+
+    @Override
+    protected BaseUnit getTimeUnit_nu() { return Units.MS100; }
+    @Override
+    protected BaseUnit getSecondTimeUnit_nu() { return Units.S; }
+
+
+
+    @Override
+    public void setInverted(boolean invert) {}
+    @Override
+    public boolean isInverted() { return false; }
+    @Override
+    protected void cmdPosition_native(double val_nu, ControlType controlMethod) { output = val_nu; }
+    @Override
+    protected void cmdVelocity_native(double vel) { output = vel; }
+    @Override
+    protected void cmdPercent_native(double perc) { output = perc; }
+
+    @Override
+    protected void addQuadratureEncoder(QuadratureEncoder sensor) {}
+    @Override
+    public void setSensorPhase(boolean phase) {}
+
+    @Override
+    protected double readPosition_nu() { return position_nu; }
+    @Override
+    protected void setPosition_nu(double pos_nu) { position_nu = pos_nu; }
+    @Override
+    protected double readVelocity_nu() { return velocity_nu; }
+
+    @Override
+    public void setOpenLoopRampRate(double fullThrottleSec) {}
+    @Override
+    public void setClosedLoopRampRate(double fullThrottleSec) {}
+
+    @Override
+    protected double readVoltage() { return 0; }
+    @Override
+    protected double readPercentVoltage() { return 0; }
+    @Override
+    protected double readCurrent() { return 0; }
+
+    @Override
+    public void follow(BBMotorController motorController) {}
+}
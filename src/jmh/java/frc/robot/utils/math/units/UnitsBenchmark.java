@@ -0,0 +1,82 @@
+package frc.robot.utils.math.units;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+
+/**
+ * Benchmarks for the units package. Run with the gc profiler (./gradlew jmh does)
+ * to see how much garbage each operation makes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class UnitsBenchmark {
+    private BaseUnit tick;
+    private Unit ticksPer100ms;
+    private Quantity velocity;
+    private UnitConverter converter;
+    private double value;
+
+
+
+    @Setup
+    public void setup() {
+        tick = new BaseUnit(Units.REV, 8192, "tick");
+        ticksPer100ms = (new UnitBuilder()).num(tick).denom(Units.MS100).make();
+        velocity = new Quantity(1.5, Units.RAD_PER_S);
+        converter = new UnitConverter(Units.RAD_PER_S, ticksPer100ms);
+        value = 1.5;
+    }
+
+
+
+    @Benchmark
+    public double unitPer() {
+        return ticksPer100ms.per(Units.RAD_PER_S);
+    }
+
+    @Benchmark
+    public Quantity quantityTo() {
+        return velocity.to(ticksPer100ms);
+    }
+
+    @Benchmark
+    public double quantityConvert() {
+        return Quantity.convert(value, Units.RAD_PER_S, ticksPer100ms);
+    }
+
+    @Benchmark
+    public double unitConverter() {
+        return converter.convert(value);
+    }
+
+    @Benchmark
+    public Unit unitBuilderMake() {
+        return (new UnitBuilder()).num(tick).denom(Units.MS100, Units.S).make();
+    }
+
+    @Benchmark
+    public Unit unitMultiply() {
+        return ticksPer100ms.multiply(Units.S);
+    }
+
+    @Benchmark
+    public Unit unitDivide() {
+        return ticksPer100ms.divide(Units.S);
+    }
+}
@@ -7,7 +7,6 @@
 
 package frc.robot;
 
-import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.ctre.phoenix.motorcontrol.VelocityMeasPeriod;
 
 import edu.wpi.first.wpilibj.TimedRobot;
@@ -16,6 +15,8 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 
 import frc.robot.utils.control.encoder.QuadratureEncoder;
 import frc.robot.utils.control.motor.BBTalonSRX;
+import frc.robot.utils.control.motor.status.StatusFrameManager;
+import frc.robot.utils.control.motor.status.StatusSignal;
 import frc.robot.utils.control.statespace.modeling.ildata.ILData;
 import frc.robot.utils.math.units.Units;
 import frc.robot.utils.roborio.RoboRIOFS;
@@ -39,6 +40,8 @@ public class Robot extends TimedRobot {
     private BBTalonSRX[] talon = new BBTalonSRX[4];
     private ILData[] ilData = new ILData[4];
 
+    private final StatusFrameManager statusFrames = new StatusFrameManager();
+
 
 
     /**
@@ -62,11 +65,18 @@ public class Robot extends TimedRobot {
             talon[i].addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
 
             talon[i].getTalonSRX().configVelocityMeasurementPeriod(VelocityMeasPeriod.Period_1Ms);
-            talon[i].getTalonSRX().setStatusFramePeriod(StatusFrameEnhanced.Status_8_PulseWidth, 10);
+            // ILData reads everything every 5 ms
+            statusFrames.register(
+                talon[i], 0.005,
+                StatusSignal.Position, StatusSignal.Velocity, StatusSignal.Voltage, StatusSignal.Current
+            );
 
             ilData[i] = new ILData(talon[i], 0.75);
         }
 
+        // readings are staler than asked for and the bus is busier than it should be
+        SmartDashboard.putBoolean("status frames over budget", statusFrames.isOverBudget());
+
 
         RoboRIOFS.init();
 
@@ -1,5 +1,47 @@
 package frc.robot.utils.control;
 
+
+
+/**
+ * One diagnostic sample of a motor: its readings at one point in time, with position
+ * and velocity in native units. Reused when reading samples out of
+ * MotorDiagnostics so reading doesn't allocate.
+ */
 public class MotorInfo {
-    
-}
\ No newline at end of file
+    private long timestamp;
+
+    private double position_nu;
+    private double velocity_nu;
+    private double current;
+    private double voltage;
+    private double percentVoltage;
+
+
+
+    public void set(long timestamp, double position_nu, double velocity_nu, double current, double voltage, double percentVoltage) {
+        this.timestamp = timestamp;
+        this.position_nu = position_nu;
+        this.velocity_nu = velocity_nu;
+        this.current = current;
+        this.voltage = voltage;
+        this.percentVoltage = percentVoltage;
+    }
+
+
+
+    /** Get when the sample was taken, from System.nanoTime() */
+    public long getTimestamp() { return timestamp; }
+
+    public double getPosition_nu() { return position_nu; }
+    public double getVelocity_nu() { return velocity_nu; }
+    public double getCurrent() { return current; }
+    public double getVoltage() { return voltage; }
+    public double getPercentVoltage() { return percentVoltage; }
+
+
+
+    @Override
+    public String toString() {
+        return timestamp + "," + position_nu + "," + velocity_nu + "," + current + "," + voltage + "," + percentVoltage;
+    }
+}
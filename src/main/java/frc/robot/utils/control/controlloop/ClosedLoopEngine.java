@@ -0,0 +1,281 @@
+package frc.robot.utils.control.controlloop;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.motor.BBMotorController;
+import frc.robot.utils.control.pidf.PID;
+
+
+
+/**
+ * Runs a bunch of PIDF controllers on the RIO in one high rate loop (1 kHz by default).
+ * Every cycle each enabled loop refreshes its motor's sensors, runs its controller on
+ * the snapshot and sends the output with cmdPercent(). This lets us run controllers the
+ * motor controller firmware can't, and time the loop ourselves.
+ *
+ * start() runs it from a Notifier, or call runCycle() directly to step it by hand (like
+ * alongside a BBSimMotorController).
+ *
+ * The engine owns every motor added to it: BBMotorController isn't thread safe, so
+ * while a motor is in the engine nothing else should command it or refresh/read its
+ * sensors. Other threads can read what the engine measured with Loop.getMeasurement(),
+ * or register the motor with a SensorPoller and read it with SensorPoller.read()
+ * (refreshSensors() then takes the poller's readings too).
+ */
+public class ClosedLoopEngine extends ControlLoop {
+    public static final double DEFAULT_FREQUENCY = 1000;
+
+
+
+    /** One motor being controlled by the engine */
+    public static class Loop {
+        private final BBMotorController MOTOR;
+        private final PIDFController CONTROLLER;
+        private final ControlType.Variable VARIABLE;
+
+        private volatile double setpoint = 0;
+        private volatile boolean enabled = false;
+        private volatile double measurement = 0;
+        /** whether the engine has been driving the motor (only touched by the engine) */
+        private boolean running = false;
+        /** when the last measurement was read (only touched by the engine) */
+        private long lastTimestamp = 0;
+
+
+
+        private Loop(BBMotorController motor, PIDFController controller, ControlType.Variable variable) {
+            MOTOR = motor;
+            CONTROLLER = controller;
+            VARIABLE = variable;
+        }
+
+
+
+        /**
+         * Set the setpoint and start controlling the motor. Safe to call from any thread.
+         *
+         * @param setpoint position or velocity in the motor's preferred units
+         */
+        public void setSetpoint(double setpoint) {
+            this.setpoint = setpoint;
+            enabled = true;
+        }
+
+        public double getSetpoint() { return setpoint; }
+
+        /** Stop controlling the motor, the engine sets it to 0% on its next cycle */
+        public void disable() {
+            enabled = false;
+        }
+
+        public boolean isEnabled() { return enabled; }
+
+        /** Get the last position or velocity the engine measured. Safe to call from any thread. */
+        public double getMeasurement() { return measurement; }
+
+        public BBMotorController getMotor() { return MOTOR; }
+
+        /** Get the controller (only change it while the loop is disabled or the engine is stopped) */
+        public PIDFController getController() { return CONTROLLER; }
+
+        public ControlType.Variable getVariable() { return VARIABLE; }
+
+
+
+        private void run(double dt) {
+            if (!enabled) {
+                if (running) {
+                    MOTOR.cmdPercent(0);
+                    CONTROLLER.reset();
+
+                    running = false;
+                }
+
+                return;
+            }
+
+            running = true;
+
+            MOTOR.refreshSensors();
+
+            double measured = (VARIABLE == ControlType.Variable.Position)
+                ? MOTOR.getPosition()
+                : MOTOR.getVelocity();
+
+            // the reading only changes when a status frame comes in, much slower than this runs
+            long timestamp = MOTOR.getSnapshot().getTimestamp();
+            boolean fresh = timestamp != lastTimestamp;
+            lastTimestamp = timestamp;
+
+            measurement = measured;
+
+            MOTOR.cmdPercent(CONTROLLER.calculate(setpoint, measured, dt, fresh));
+        }
+    }
+
+
+
+
+
+    private final CopyOnWriteArrayList<Loop> LOOPS = new CopyOnWriteArrayList<Loop>();
+
+    private Notifier notifier;
+    /** when the Notifier last ran a cycle, 0 before the first one */
+    private long lastStartNanos = 0;
+
+    private volatile long cycles = 0;
+    private volatile long overruns = 0;
+    private volatile long lastCycleNanos = 0;
+    private volatile long maxCycleNanos = 0;
+    private volatile long maxJitterNanos = 0;
+
+
+
+    public ClosedLoopEngine() {
+        this(DEFAULT_FREQUENCY);
+    }
+
+    /**
+     * Create a closed loop engine (not started)
+     *
+     * @param frequency_hz frequency in hertz to run at
+     */
+    public ClosedLoopEngine(double frequency_hz) {
+        super(frequency_hz);
+    }
+
+
+
+    /**
+     * Add a motor to control. It isn't driven until the returned loop gets a setpoint.
+     *
+     * @param motor motor to control (with its units already set up), nothing else
+     * should use it while it's in the engine
+     * @param gains gains to use, see PIDFController for the units
+     * @param variable what to control (Position or Velocity)
+     *
+     * @return the loop, for setting the setpoint
+     */
+    public Loop add(BBMotorController motor, PID gains, ControlType.Variable variable) {
+        if (variable != ControlType.Variable.Position && variable != ControlType.Variable.Velocity) {
+            throw new IllegalArgumentException("Can only control position or velocity, not " + variable);
+        }
+
+        Loop loop = new Loop(motor, new PIDFController(gains), variable);
+        LOOPS.add(loop);
+
+        return loop;
+    }
+
+    /**
+     * Stop controlling a motor. Doesn't touch the motor, so disable the loop first
+     * (and let a cycle run) if it should stop.
+     */
+    public void remove(Loop loop) {
+        LOOPS.remove(loop);
+    }
+
+
+
+    @Override
+    public void runCycle(double dt) {
+        long start = System.nanoTime();
+
+        for (int i = 0; i < LOOPS.size(); i++) {
+            LOOPS.get(i).run(dt);
+        }
+
+        long time = System.nanoTime() - start;
+
+        lastCycleNanos = time;
+        if (time > maxCycleNanos) {
+            maxCycleNanos = time;
+        }
+        cycles++;
+    }
+
+    /** Run by the Notifier, times the cycle off the actual time since the last one */
+    private void run() {
+        long start = System.nanoTime();
+        long periodNanos = (long) (getPeriod() * 1e9);
+
+        double dt = getPeriod();
+
+        if (lastStartNanos != 0) {
+            long sinceLast = start - lastStartNanos;
+
+            dt = sinceLast / 1e9;
+
+            long jitter = Math.abs(sinceLast - periodNanos);
+            if (jitter > maxJitterNanos) {
+                maxJitterNanos = jitter;
+            }
+        }
+
+        lastStartNanos = start;
+
+        runCycle(dt);
+
+        if (System.nanoTime() - start > periodNanos) {
+            overruns++;
+        }
+    }
+
+
+
+    /** Start running from a Notifier (does nothing if already running) */
+    public synchronized void start() {
+        if (notifier != null) {
+            return;
+        }
+
+        lastStartNanos = 0;
+
+        notifier = new Notifier(this::run);
+        notifier.startPeriodic(getPeriod());
+    }
+
+    /** Stop the Notifier. Motors are left at whatever they were last sent. */
+    public synchronized void stop() {
+        if (notifier == null) {
+            return;
+        }
+
+        notifier.stop();
+        notifier.close();
+        notifier = null;
+    }
+
+    public synchronized boolean isRunning() {
+        return notifier != null;
+    }
+
+
+
+    /** Get the number of loops being run */
+    public int getLoopCount() { return LOOPS.size(); }
+
+    /** Get the number of cycles run */
+    public long getCycles() { return cycles; }
+
+    /** Get the number of Notifier cycles that took longer than the period */
+    public long getOverruns() { return overruns; }
+
+    /** Get how long the last cycle took in seconds */
+    public double getLastCycleTime() { return lastCycleNanos / 1e9; }
+
+    /** Get how long the longest cycle took in seconds */
+    public double getMaxCycleTime() { return maxCycleNanos / 1e9; }
+
+    /** Get how far off the period the Notifier has been at worst, in seconds */
+    public double getMaxJitter() { return maxJitterNanos / 1e9; }
+
+    public void resetTiming() {
+        overruns = 0;
+        maxCycleNanos = 0;
+        maxJitterNanos = 0;
+    }
+}
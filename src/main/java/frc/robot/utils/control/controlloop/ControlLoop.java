@@ -2,9 +2,43 @@ package frc.robot.utils.control.controlloop;
 
 
 
+/**
+ * Something that runs every so often at a fixed frequency, like a closed loop
+ * controller. runCycle() does one cycle, so it can be run from a Notifier on the
+ * robot or stepped by hand (alongside a simulated motor, for example).
+ */
 public abstract class ControlLoop {
     /** Frequency in hertz of the control loop */
     private double frequency_hz;
 
-    
-}
\ No newline at end of file
+
+
+    /**
+     * @param frequency_hz frequency in hertz to run at
+     */
+    public ControlLoop(double frequency_hz) {
+        setFrequency(frequency_hz);
+    }
+
+
+
+    /**
+     * Run one cycle of the loop
+     *
+     * @param dt seconds since the last cycle
+     */
+    public abstract void runCycle(double dt);
+
+
+
+    public void setFrequency(double frequency_hz) {
+        if (frequency_hz > 0) {
+            this.frequency_hz = frequency_hz;
+        }
+    }
+
+    public double getFrequency() { return frequency_hz; }
+
+    /** Get the time between cycles in seconds */
+    public double getPeriod() { return 1 / frequency_hz; }
+}
@@ -0,0 +1,188 @@
+package frc.robot.utils.control.controlloop;
+
+import frc.robot.utils.control.pidf.GainScale;
+import frc.robot.utils.control.pidf.PID;
+import frc.robot.utils.control.pidf.PIDF;
+
+
+
+/**
+ * PIDF controller that runs on the RIO instead of in the motor controller's firmware.
+ * Works like the Talon's closed loop: the integral only builds up while the error is
+ * inside the integral zone (and resets outside of it), the derivative is of the error,
+ * and kF multiplies the setpoint. On top of that the output can be ramped and clamped.
+ *
+ * Measurements from a motor controller only change when a status frame comes in (every
+ * 10-20 ms), so running faster than that sees the same measurement over and over. Tell
+ * calculate() whether the measurement is new and the derivative is only taken across
+ * new ones, instead of being 0 for a bunch of runs and then one big spike.
+ *
+ * Errors are in preferred units and the output is percent output (-1 to 1), so gains
+ * are percent output per preferred unit of error (kI per unit * s, kD per unit / s).
+ * Gains marked with inPreferredUnits() are in volts instead and get divided by the
+ * nominal voltage.
+ *
+ * Nothing allocates in calculate(), so this is fine to run at 1 kHz.
+ */
+public class PIDFController {
+    private PID gains;
+
+    private double kP;
+    private double kI;
+    private double kD;
+    private double kF;
+    private double iZone;
+
+    private double minOutput = -1;
+    private double maxOutput = 1;
+    /** seconds to go from 0 to full output, 0 for no ramp */
+    private double rampRate = 0;
+
+    private double integral = 0;
+    private double lastError = 0;
+    private double lastOutput = 0;
+    /** whether there's a last error to take the derivative with */
+    private boolean hasLast = false;
+
+    /** error at the last new measurement */
+    private double measuredError = 0;
+    /** seconds since the last new measurement */
+    private double sinceMeasured = 0;
+    /** derivative as of the last new measurement */
+    private double derivative = 0;
+
+
+
+    /**
+     * @param gains PID(F) gains to use
+     */
+    public PIDFController(PID gains) {
+        setGains(gains);
+    }
+
+
+
+    /**
+     * Set the gains. Doesn't reset the integral, so gains can be swapped while running.
+     *
+     * @param gains PID(F) gains to use
+     */
+    public void setGains(PID gains) {
+        this.gains = gains;
+
+        // volts -> percent output
+        double scale = gains.isInPreferredUnits() ? 1 / GainScale.NOMINAL_VOLTAGE : 1;
+
+        kP = gains.getKP() * scale;
+        kI = gains.getKI() * scale;
+        kD = gains.getKD() * scale;
+        kF = (gains instanceof PIDF) ? ((PIDF) gains).getKF() * scale : 0;
+        iZone = gains.getIZone();
+    }
+
+    public PID getGains() { return gains; }
+
+    /**
+     * Limit the output
+     *
+     * @param minOutput lowest output (at least -1)
+     * @param maxOutput highest output (at most 1)
+     */
+    public void setOutputRange(double minOutput, double maxOutput) {
+        if (minOutput > maxOutput) {
+            return;
+        }
+
+        this.minOutput = Math.max(-1, minOutput);
+        this.maxOutput = Math.min(1, maxOutput);
+    }
+
+    /**
+     * Ramp the output, just like a motor controller's closed loop ramp
+     *
+     * @param fullThrottleSec seconds to go from 0 to full output (0 for no ramp)
+     */
+    public void setRampRate(double fullThrottleSec) {
+        rampRate = Math.max(0, fullThrottleSec);
+    }
+
+
+
+    /**
+     * Run the controller once
+     *
+     * @param setpoint where the measurement should be
+     * @param measurement where it actually is
+     * @param dt seconds since the last time this was run
+     *
+     * @return output from -1 to 1
+     */
+    public double calculate(double setpoint, double measurement, double dt) {
+        return calculate(setpoint, measurement, dt, true);
+    }
+
+    /**
+     * Run the controller once
+     *
+     * @param setpoint where the measurement should be
+     * @param measurement where it actually is
+     * @param dt seconds since the last time this was run
+     * @param fresh whether the measurement is new since the last time this was run
+     * (the derivative is only updated when it is)
+     *
+     * @return output from -1 to 1
+     */
+    public double calculate(double setpoint, double measurement, double dt, boolean fresh) {
+        double error = setpoint - measurement;
+
+        if (iZone == 0 || Math.abs(error) < iZone) {
+            integral += error * dt;
+        } else {
+            integral = 0;
+        }
+
+        sinceMeasured += dt;
+
+        if (fresh || !hasLast) {
+            derivative = (hasLast && sinceMeasured > 0) ? (error - measuredError) / sinceMeasured : 0;
+
+            measuredError = error;
+            sinceMeasured = 0;
+        }
+
+        double output = kP * error + kI * integral + kD * derivative + kF * setpoint;
+
+        if (rampRate > 0) {
+            double maxStep = dt / rampRate;
+
+            output = Math.max(lastOutput - maxStep, Math.min(lastOutput + maxStep, output));
+        }
+
+        output = Math.max(minOutput, Math.min(maxOutput, output));
+
+        lastError = error;
+        lastOutput = output;
+        hasLast = true;
+
+        return output;
+    }
+
+    /** Forget the integral, last error, derivative and last output (for starting again from rest) */
+    public void reset() {
+        integral = 0;
+        lastError = 0;
+        lastOutput = 0;
+        hasLast = false;
+
+        measuredError = 0;
+        sinceMeasured = 0;
+        derivative = 0;
+    }
+
+
+
+    public double getLastError() { return lastError; }
+    public double getLastOutput() { return lastOutput; }
+    public double getIntegral() { return integral; }
+    public double getDerivative() { return derivative; }
+}
@@ -2,16 +2,21 @@ package frc.robot.utils.control.motor;
 
 
 
-import frc.robot.utils.data.DataWindow;
-
 import frc.robot.utils.control.controltype.ControlType;
 import frc.robot.utils.control.motionprofile.motionmagic.MotionMagic;
+import frc.robot.utils.control.pidf.GainScale;
 import frc.robot.utils.control.pidf.PID;
 import frc.robot.utils.control.pidf.PIDF;
-import frc.robot.utils.control.MotorInfo;
 import frc.robot.utils.control.MotionConfig;
 
 import frc.robot.utils.control.encoder.*;
+import frc.robot.utils.control.motor.slots.LFUEvictionPolicy;
+import frc.robot.utils.control.motor.slots.SlotEvictionPolicy;
+import frc.robot.utils.control.motor.status.CANDeviceType;
+import frc.robot.utils.control.motor.status.CANTraffic;
+import frc.robot.utils.control.motor.status.StatusFrame;
+import frc.robot.utils.control.motor.status.StatusFrameSink;
+import frc.robot.utils.control.motor.status.StatusSignal;
 
 import frc.robot.utils.math.units.BaseUnit;
 import frc.robot.utils.math.units.Unit;
@@ -20,8 +25,15 @@ import frc.robot.utils.math.units.BaseUnit.Dimension;
 import frc.robot.utils.math.units.UnitBuilder;
 import frc.robot.utils.math.units.Quantity;
 
+import frc.robot.utils.roborio.RoboRIOFS;
+
+import java.io.File;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 
 
@@ -49,10 +61,12 @@ import java.util.HashMap;
  * Generalizing also allows us to generalize in our control methods. Do we want to use
  * provided functional PID(F) or do we want to experiment with state-space?
  */
-public abstract class BBMotorController {
+public abstract class BBMotorController implements StatusFrameSink {
     private final int DEVICE_ID;
     public BBMotorController(int deviceID) {
         DEVICE_ID = deviceID;
+
+        TRAFFIC = new CANTraffic(getClass().getSimpleName() + " " + deviceID, getCANDeviceType());
     }
 
 
@@ -101,7 +115,12 @@ public abstract class BBMotorController {
      * If no name is provided, will default to "Config[NUMBER]" where [NUMBER] is the number
      * of the (internal) slot as its added (first -> 0, second -> 1, ...)
      */
-    protected HashMap<String, Integer> motionConfigNames = new HashMap<String, Integer>();
+    protected HashMap<String, MotionConfigHandle> motionConfigNames = new HashMap<String, MotionConfigHandle>();
+    /** Handles of the MotionConfigs, indexed the same as motionConfigs */
+    protected ArrayList<MotionConfigHandle> motionConfigHandles = new ArrayList<MotionConfigHandle>();
+    /** First MotionConfig added for each control type */
+    protected EnumMap<ControlType, MotionConfigHandle> motionConfigTypes =
+        new EnumMap<ControlType, MotionConfigHandle>(ControlType.class);
 
     /**
      * Get the number of available motion configurations in wraooed motor controller
@@ -137,27 +156,29 @@ public abstract class BBMotorController {
     protected abstract void loadMotionMagic(double acc, double vel, int slot);
 
     protected void loadMotionMagic(MotionMagic mm, int slot) {
-        Quantity vel = mm.getCruiseVelocity();
-        Quantity acc = mm.getAcceleration();
+        loadMotionMagic(getAcceleration_nu(mm), getCruiseVelocity_nu(mm), slot);
 
-        double vel_nu;
-        double acc_nu;
+        motionMagic = mm;
+    }
+
+    private double getCruiseVelocity_nu(MotionMagic mm) {
+        Quantity vel = mm.getCruiseVelocity();
 
         if (vel.getUnit().isCompatible(OMEGA_UNIT_NU)) {
-            vel_nu = vel.to(OMEGA_UNIT_NU).getValue();
+            return vel.getValue(OMEGA_UNIT_NU);
         } else {
-            vel_nu = toAngular(vel).to(OMEGA_UNIT_NU).getValue();
+            return toAngular(vel).to(OMEGA_UNIT_NU).getValue();
         }
+    }
+
+    private double getAcceleration_nu(MotionMagic mm) {
+        Quantity acc = mm.getAcceleration();
 
         if (acc.getUnit().isCompatible(ALPHA_UNIT_NU)) {
-            acc_nu = acc.to(ALPHA_UNIT_NU).getValue();
+            return acc.getValue(ALPHA_UNIT_NU);
         } else {
-            acc_nu = toAngular(acc).to(ALPHA_UNIT_NU).getValue();
+            return toAngular(acc).to(ALPHA_UNIT_NU).getValue();
         }
-
-        loadMotionMagic(acc_nu, vel_nu, slot);
-
-        motionMagic = mm;
     }
     
     /**
@@ -174,82 +195,331 @@ public abstract class BBMotorController {
      * @param slot slot to load into
      */
     protected int loadMotionConfig(int configID, int slot) {
-    	MotionConfig config = motionConfigs.get(configID);
-    	
-    	if (slotsUsed == MOTION_SLOTS) {
-    		clearMotionSlot(slot);
-    	}
+    	prepareMotionConfig(motionConfigs.get(configID), slot, slotsUsed == MOTION_SLOTS).run();
+    	commitMotionConfig(configID, slot);
     	
+    	return slot;
+    }
+
+    /**
+     * A motion config's constants worked out in native units, ready to be written
+     * into a slot of the wrapped motor controller. Running it just makes the (slow,
+     * blocking) config calls with what was worked out, and doesn't touch anything
+     * else in the motor controller, so it's safe to run from the ConfigWriter's thread.
+     */
+    private class SlotWrite implements Runnable {
+        private final int SLOT;
+        private final boolean CLEAR;
+
+        /** gains in native units, null if none */
+        private final PID GAINS;
+
+        private final boolean HAS_MOTION_MAGIC;
+        private final double ACC_NU;
+        private final double VEL_NU;
+
+        private SlotWrite(int slot, boolean clear, PID gains, boolean hasMotionMagic, double acc_nu, double vel_nu) {
+            SLOT = slot;
+            CLEAR = clear;
+            GAINS = gains;
+            HAS_MOTION_MAGIC = hasMotionMagic;
+            ACC_NU = acc_nu;
+            VEL_NU = vel_nu;
+        }
+
+        @Override
+        public void run() {
+            long start = LATENCY.start();
+
+            // one config frame per value written
+            int frames = 0;
+
+            if (CLEAR) {
+                clearMotionSlot(SLOT);
+                frames += 7;
+            }
+
+            if (GAINS instanceof PIDF) {
+                loadPIDF((PIDF) GAINS, SLOT);
+                frames += 5;
+            } else if (GAINS != null) {
+                loadPID(GAINS, SLOT);
+                frames += 4;
+            }
+
+            if (HAS_MOTION_MAGIC) {
+                loadMotionMagic(ACC_NU, VEL_NU, SLOT);
+                frames += 2;
+            }
+
+            TRAFFIC.countConfig(frames);
+            LATENCY.recordSince(LatencyMonitor.Operation.Config, start);
+        }
+    }
+
+    /**
+     * Work out a motion config's constants in native units for writing into a slot
+     * (on the thread that owns this motor controller, since it uses its units)
+     * 
+     * @param config motion config to write
+     * @param slot slot to write it into
+     * @param clear whether to clear whatever was in the slot first
+     * 
+     * @return the write, to run right away or hand to a ConfigWriter
+     */
+    private SlotWrite prepareMotionConfig(MotionConfig config, int slot, boolean clear) {
     	PID pid = config.getPID();
     	if (pid != null) {
-    		if (pid instanceof PIDF) {
-    			loadPIDF((PIDF) pid, slot);
-    		} else {
-    			loadPID(pid, slot);
-    		}
+    		// gains in preferred units need to be converted first
+    		pid = pid.toNative(getGainScale(config.getControlType()));
     	}
     	
     	MotionMagic mm = config.getMotionMagic();
+    	double acc_nu = 0;
+    	double vel_nu = 0;
+
     	if (mm != null) {
-    		loadMotionMagic(mm, slot);
+    		acc_nu = getAcceleration_nu(mm);
+    		vel_nu = getCruiseVelocity_nu(mm);
+
+    		motionMagic = mm;
     	}
     	
+    	// no need to load control type, that is to help find
+    	// an appropriate motion configuration if necessary
+
+    	return new SlotWrite(slot, clear, pid, mm != null, acc_nu, vel_nu);
+    }
+
+    /*
+     * PID gains can be given in preferred units (see PID.inPreferredUnits()) and are
+     * converted to native units when loaded. How they convert depends on the units
+     * this motor controller uses, so whenever those change, anything already loaded
+     * in preferred units is loaded again (in the background with a ConfigWriter, see
+     * below). A load already in flight is written again right behind itself, since
+     * what it's writing was worked out in the old units.
+     */
+    /** until there are units, gains in preferred units come out as 0 */
+    private static final GainScale NO_GAIN_SCALE = new GainScale(0, 0, 1, 1);
+
+    private GainScale positionGainScale = NO_GAIN_SCALE;
+    private GainScale velocityGainScale = NO_GAIN_SCALE;
+
+    /**
+     * Get what the motor controller's output is in native units at full output
+     * (what gains are relative to). 1 (duty cycle) unless overridden.
+     */
+    protected double getFullOutput_nu() {
+        return 1;
+    }
+
+    /** Get how often the motor controller runs its closed loop in seconds */
+    protected double getClosedLoopPeriod() {
+        return 0.001;
+    }
+
+    /**
+     * Get how to convert gains in preferred units for a control type
+     * 
+     * @param controlType control type the gains are for
+     * 
+     * @return gain scale, or null for gains that don't depend on position units
+     */
+    public GainScale getGainScale(ControlType controlType) {
+        if (controlType == null) {
+            return null;
+        }
+
+        switch (controlType.getVariable()) {
+            case Position: {
+                return positionGainScale;
+            }
+            case Velocity: {
+                return velocityGainScale;
+            }
+            default: {
+                return null;
+            }
+        }
+    }
+
+    private void updateGainScales() {
+        GainScale position = new GainScale(positionScale, velocityScale, getFullOutput_nu(), getClosedLoopPeriod());
+        GainScale velocity = new GainScale(velocityScale, velocityScale, getFullOutput_nu(), getClosedLoopPeriod());
+
+        if (position.equals(positionGainScale) && velocity.equals(velocityGainScale)) {
+            return;
+        }
+
+        positionGainScale = position;
+        velocityGainScale = velocity;
+
+        // the writer goes in order, so this lands after the stale one
+        if (pendingLoad != null && dependsOnUnits(motionConfigs.get(pendingConfigID))) {
+            SlotWrite write = prepareMotionConfig(motionConfigs.get(pendingConfigID), pendingSlot, slotsUsed == MOTION_SLOTS);
+
+            pendingLoad = configWriter.submit(this, write);
+        }
+
+        // reload anything loaded that depends on units
+        for (int i = 0; i < slotsUsed; i++) {
+            // one being reloaded already is being reloaded in the old units
+            int configID = (reloads[i] != null) ? reloadConfigs[i] : loadedMotionConfigs[i];
+
+            if (i == pendingSlot || configID == -1 || !dependsOnUnits(motionConfigs.get(configID))) {
+                continue;
+            }
+
+            SlotWrite write = prepareMotionConfig(motionConfigs.get(configID), i, false);
+
+            if (configWriter != null) {
+                startReload(configID, i, write);
+            } else {
+                write.run();
+
+                if (i == selectedSlot) {
+                    invalidateLastCommand();
+                }
+            }
+        }
+    }
+
+    /** Whether loading a motion config needs the units (motion magic always does) */
+    private static boolean dependsOnUnits(MotionConfig config) {
+        PID pid = config.getPID();
+
+        return (pid != null && pid.isInPreferredUnits()) || config.getMotionMagic() != null;
+    }
+
+    /** Record that a motion config is now in a slot */
+    private void commitMotionConfig(int configID, int slot) {
+    	if (slot < slotsUsed) {
+    		if (loadedMotionConfigs[slot] != -1) {
+    			motionConfigHandles.get(loadedMotionConfigs[slot]).slot = -1;
+    		}
+
+    		slotEvictions++;
+    	}
+
+    	motionConfigHandles.get(configID).slot = slot;
+
     	loadedMotionConfigs[slot] = configID; // very important
+    	evictionPolicy.onLoad(slot, configID, System.nanoTime());
+
+    	// the gains behind the last command may have just changed
+    	if (slot == selectedSlot) {
+    		invalidateLastCommand();
+    	}
     	if (slot == slotsUsed) {
     		slotsUsed++;
     	}
 
         // "use" this new configuration
         motionConfigs.get(configID).use();
-    	
-    	// no need to load control type, that is to help find
-    	// an appropriate motion configuration if necessary
-    	
-    	return slot;
     }
+
     /**
      * Load in a motion configuration stored in the BBMotorController into the
-     * wrapped motor controller object. Defaults to the least used slot
-     * in terms of amount of times its been reloaded into the motor controller
-     * (probably not the best way but also how would you get to this point?
-     * (also very overkill)).
+     * wrapped motor controller object. If every slot is taken, the slot eviction
+     * policy decides which one to overwrite.
      * 
      * @param configID id of motion configuration in motionConfigs
      * 
      * @return slot it was loaded into
      */
     protected int loadMotionConfig(int configID) {
-        // which slot to laod into
-        int slot;
+        // load it in now that you know which slot to use
+        return loadMotionConfig(configID, chooseMotionSlot(-1));
+    }
 
-        // if no slots are unused, look for least used slot to swap in a new set of constants
+    /**
+     * Choose a slot to load a new motion config into
+     * 
+     * @param avoid slot not to choose unless it's the only one (-1 for none)
+     * 
+     * @return slot to load into
+     */
+    private int chooseMotionSlot(int avoid) {
+        // if haven't used all available slots, might as well load it into the motor controller
+        // in the next unused slot
         // also should be at max == but just in case...
-        if (slotsUsed >= MOTION_SLOTS) {
-            // to find the minimum uses and corresponding slot, first assume last one
-            int minUses = motionConfigs.get(loadedMotionConfigs[loadedMotionConfigs.length - 1]).getUses();
-            slot = loadedMotionConfigs.length - 1;
-
-            // loop through all slots in reverse order (except for last one, already covered)
-            // to try to find a smaller amount of uses
-            for (int i = loadedMotionConfigs.length - 2; i >= 0; i--) {
-                // number of uses for this motion configuration
-                int uses = motionConfigs.get(loadedMotionConfigs[i]).getUses();
-
-                // test if its a new minimum
-                if (uses < minUses) {
-                    minUses = uses;
-                    // set the new slot to switch into
-                    slot = i;
-                }
+        if (slotsUsed < MOTION_SLOTS) {
+            return slotsUsed;
+        }
+
+        for (int i = 0; i < MOTION_SLOTS; i++) {
+            // a slot whose load failed doesn't hold anything
+            if (i != avoid && loadedMotionConfigs[i] == -1) {
+                return i;
             }
-        } else {
-            // if haven't used all available slots, might as well load it into the motor controller
-            // in the next unused slot
-            slot = slotsUsed;
+
+            evictable[i] = i != avoid;
         }
 
-        // load it in now that you know which slot to use
-        return loadMotionConfig(configID, slot);
+        int slot = evictionPolicy.chooseSlot(loadedMotionConfigs, evictable, System.nanoTime());
+
+        // only one slot or the policy didn't like any of them
+        if (slot == -1) {
+            slot = (avoid != -1) ? avoid : MOTION_SLOTS - 1;
+        }
+
+        return slot;
+    }
+
+
+
+    /*
+     * Slot eviction. With more motion configs than hardware slots, configs get swapped
+     * in and out of slots and the eviction policy decides which to swap out. A hit is
+     * setMotionConfig finding the config already in a slot, a miss is having to load
+     * it, and an eviction is a load that overwrote another config.
+     */
+    private SlotEvictionPolicy evictionPolicy = initPolicy(new LFUEvictionPolicy());
+    private final boolean[] evictable = new boolean[MOTION_SLOTS];
+
+    private long slotHits = 0;
+    private long slotMisses = 0;
+    private long slotEvictions = 0;
+
+    private SlotEvictionPolicy initPolicy(SlotEvictionPolicy policy) {
+        policy.init(MOTION_SLOTS);
+
+        return policy;
+    }
+
+    /**
+     * Set how slots to overwrite are chosen (LFU with no aging by default). Each
+     * motor controller needs its own policy instance.
+     * 
+     * @param policy eviction policy
+     */
+    public void setSlotEvictionPolicy(SlotEvictionPolicy policy) {
+        evictionPolicy = initPolicy(policy);
+
+        // let it know what's already loaded
+        long time = System.nanoTime();
+        for (int i = 0; i < slotsUsed; i++) {
+            if (loadedMotionConfigs[i] != -1) {
+                evictionPolicy.onLoad(i, loadedMotionConfigs[i], time);
+            }
+        }
+    }
+
+    public SlotEvictionPolicy getSlotEvictionPolicy() { return evictionPolicy; }
+
+    /** Get the number of times setMotionConfig found the config already loaded */
+    public long getSlotHits() { return slotHits; }
+
+    /** Get the number of times setMotionConfig had to load the config */
+    public long getSlotMisses() { return slotMisses; }
+
+    /** Get the number of loads that overwrote another config */
+    public long getSlotEvictions() { return slotEvictions; }
+
+    public void resetSlotStatistics() {
+        slotHits = 0;
+        slotMisses = 0;
+        slotEvictions = 0;
     }
 // haha funny FRC number 254
 
@@ -261,16 +531,51 @@ public abstract class BBMotorController {
      * @return location of possible motion configuration to use in motionConfigs or -1 if none found
      */
     public int findMotionConfig(ControlType controlType) {
-        // loop through configs to look for a matching control type
-        for (int i = 0; i < motionConfigs.size(); i++) {
-            // test for matching control type of this set of PID constants
-            if (motionConfigs.get(i).getControlType() == controlType) {
-                return i;
-            }
-        }
+        MotionConfigHandle handle = getMotionConfigHandle(controlType);
 
         // default to -1 if none found
-        return -1;
+        return (handle == null) ? -1 : handle.getID();
+    }
+
+    /**
+     * Get the handle of a motion configuration by ID
+     * 
+     * @param configID ID of the motion configuration
+     * 
+     * @return handle, or null if there's no configuration with this ID
+     */
+    public MotionConfigHandle getMotionConfigHandle(int configID) {
+        if (configID < 0 || configID >= motionConfigHandles.size()) {
+            return null;
+        }
+
+        return motionConfigHandles.get(configID);
+    }
+
+    /**
+     * Get the handle of a motion configuration by name
+     * 
+     * @param configName name of the motion configuration
+     * 
+     * @return handle, or null if no configuration has this name
+     */
+    public MotionConfigHandle getMotionConfigHandle(String configName) {
+        return motionConfigNames.get(configName);
+    }
+
+    /**
+     * Get the handle of the (first added) motion configuration providing a control type
+     * 
+     * @param controlType control type the motion configuration provides
+     * 
+     * @return handle, or null if none found
+     */
+    public MotionConfigHandle getMotionConfigHandle(ControlType controlType) {
+        if (controlType == null) {
+            return null;
+        }
+
+        return motionConfigTypes.get(controlType);
     }
 
     /**
@@ -281,23 +586,225 @@ public abstract class BBMotorController {
      * @return slot slot the configuration was loaded into in motor controller
      */
     public int setMotionConfig(int configID) {
-        // test if the configuration is already loaded, and if it is, select it
-        for (int i = 0; i < slotsUsed; i++) {
-            if (loadedMotionConfigs[i] == configID) {
-                selectMotionConfigSlot(i);
+        return setMotionConfig(motionConfigHandles.get(configID));
+    }
 
-                return i;
+    /**
+     * Set the used motion configuration
+     * 
+     * @param handle handle of the motion configuration (from this motor controller)
+     * 
+     * @return slot the configuration was loaded into in motor controller (-1 if
+     * the handle isn't from this motor controller). While the configuration is being
+     * loaded in the background, this is the slot that stays selected until it's in,
+     * which is -1 if nothing's been selected yet, so don't command anything then.
+     */
+    public int setMotionConfig(MotionConfigHandle handle) {
+        if (handle.getOwner() != this) {
+            return -1;
+        }
+
+        // finish up background loads if they're done
+        if (pendingLoad != null && pendingLoad.isDone()) {
+            finishPendingLoad();
+        }
+        finishReloads();
+
+        int configID = handle.getID();
+
+        // if the configuration is already loaded, select it
+        if (handle.slot != -1) {
+            int slot = handle.slot;
+
+            slotHits++;
+            evictionPolicy.onUse(slot, System.nanoTime());
+
+            selectSlot(slot);
+
+            return slot;
+        }
+
+        if (configWriter != null) {
+            // keep using whatever's selected until the new config (or the slots
+            // being reloaded) are in
+            if (pendingLoad != null || isReloadPending()) {
+                return selectedSlot;
+            }
+
+            int slot = chooseMotionSlot(selectedSlot);
+            slotMisses++;
+
+            if (slot != selectedSlot) {
+                startPendingLoad(configID, slot);
+
+                return selectedSlot;
             }
+
+            // the selected slot is the only one it can go in, so there's nothing to
+            // keep using while it loads; just load it right away
+            loadMotionConfig(configID, slot);
+            selectSlot(slot);
+
+            return slot;
         }
 
+        slotMisses++;
+
         // load the configuration in and get the slot to which it was loaded
         int slot = loadMotionConfig(configID);
         // select the slot it was loaded into
-        selectMotionConfigSlot(slot);
+        selectSlot(slot);
 
         return slot;
     }
 
+
+
+    /*
+     * Background slot loading. With a ConfigWriter set, a motion config that isn't
+     * loaded yet gets written on the writer's thread instead of blocking the loop.
+     * Until the write is confirmed, setMotionConfig keeps the previously selected
+     * slot, and the slot being written is marked as not holding anything (-1) so
+     * nothing selects it halfway through. One load is in flight at a time.
+     *
+     * Everything the write needs (native gains, motion magic) is worked out on the
+     * caller's thread before it's submitted; the writer's thread only makes the
+     * config calls. If the selected slot is the only one the config could go in,
+     * it's loaded right away instead.
+     *
+     * Slots reloaded because the units changed go through the writer too, and are
+     * marked -1 the same way until they're written. No new config is loaded while
+     * any of them are in flight. If the selected slot is being reloaded it stays
+     * selected (its gains are changing either way).
+     */
+    private ConfigWriter configWriter;
+    private CompletableFuture<Void> pendingLoad;
+    private int pendingConfigID = -1;
+    private int pendingSlot = -1;
+
+    /** reload in flight for each slot, null where there isn't one */
+    private final CompletableFuture<?>[] reloads = new CompletableFuture<?>[MOTION_SLOTS];
+    /** config being reloaded into each slot */
+    private final int[] reloadConfigs = new int[MOTION_SLOTS];
+
+    /**
+     * Load motion configs in the background with a ConfigWriter instead of in
+     * setMotionConfig's caller (null to go back to loading them right away).
+     * Configs added with addMotionConfiguration while there are free slots are
+     * still loaded right away, since that happens while setting up.
+     * 
+     * @param configWriter writer to load configs with
+     */
+    public void setConfigWriter(ConfigWriter configWriter) {
+        if (configWriter == null) {
+            // don't leave half loaded slots behind
+            if (pendingLoad != null) {
+                awaitWrite(pendingLoad);
+                finishPendingLoad();
+            }
+
+            for (int i = 0; i < MOTION_SLOTS; i++) {
+                if (reloads[i] != null) {
+                    awaitWrite(reloads[i]);
+                }
+            }
+            finishReloads();
+        }
+
+        this.configWriter = configWriter;
+    }
+
+    /** Wait for a write to be applied, whether or not it worked */
+    private static void awaitWrite(CompletableFuture<?> write) {
+        try {
+            write.join();
+        } catch (CompletionException | CancellationException e) {
+            // a failed write leaves its slot empty, which finishing it takes care of
+        }
+    }
+
+    /** Whether a motion config is being loaded in the background */
+    public boolean isLoadPending() {
+        return pendingLoad != null;
+    }
+
+    /** Whether any slots are being reloaded in the background after the units changed */
+    public boolean isReloadPending() {
+        for (int i = 0; i < MOTION_SLOTS; i++) {
+            if (reloads[i] != null) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Get the background load in progress
+     * 
+     * @return future completed once the config is written, or null if nothing is being loaded
+     */
+    public CompletableFuture<Void> getPendingLoad() {
+        return pendingLoad;
+    }
+
+    private void startPendingLoad(int configID, int slot) {
+        // native gains/motion magic are worked out here, the writer just sends them
+        SlotWrite write = prepareMotionConfig(motionConfigs.get(configID), slot, slotsUsed == MOTION_SLOTS);
+
+        if (slot < slotsUsed && loadedMotionConfigs[slot] != -1) {
+            motionConfigHandles.get(loadedMotionConfigs[slot]).slot = -1;
+            loadedMotionConfigs[slot] = -1;
+        }
+
+        pendingConfigID = configID;
+        pendingSlot = slot;
+        pendingLoad = configWriter.submit(this, write);
+    }
+
+    private void startReload(int configID, int slot, SlotWrite write) {
+        if (loadedMotionConfigs[slot] != -1) {
+            motionConfigHandles.get(configID).slot = -1;
+            loadedMotionConfigs[slot] = -1;
+        }
+
+        reloadConfigs[slot] = configID;
+        reloads[slot] = configWriter.submit(this, write);
+    }
+
+    /** Put back every reloaded config that's been written */
+    private void finishReloads() {
+        for (int i = 0; i < MOTION_SLOTS; i++) {
+            if (reloads[i] == null || !reloads[i].isDone()) {
+                continue;
+            }
+
+            // the config was already in the slot, so this isn't a new load
+            if (!reloads[i].isCompletedExceptionally()) {
+                motionConfigHandles.get(reloadConfigs[i]).slot = i;
+                loadedMotionConfigs[i] = reloadConfigs[i];
+
+                if (i == selectedSlot) {
+                    invalidateLastCommand();
+                }
+            }
+            // if it failed the slot just stays empty and gets loaded into next time
+
+            reloads[i] = null;
+        }
+    }
+
+    private void finishPendingLoad() {
+        if (!pendingLoad.isCompletedExceptionally()) {
+            commitMotionConfig(pendingConfigID, pendingSlot);
+        }
+        // if it failed the slot just stays empty and gets loaded into next time
+
+        pendingLoad = null;
+        pendingConfigID = -1;
+        pendingSlot = -1;
+    }
+
     /**
      * Set the used motion configuration by name, or do nothing if
      * not a recognized name.
@@ -305,9 +812,11 @@ public abstract class BBMotorController {
      * @param configName name of motion configuration to use
      */
     public void setMotionConfig(String configName) {
+        MotionConfigHandle handle = motionConfigNames.get(configName);
+
         // make sure it is a recognized name first before setting it
-        if (motionConfigNames.containsKey(configName)) {
-            setMotionConfig(motionConfigNames.get(configName));
+        if (handle != null) {
+            setMotionConfig(handle);
         }
     }
 
@@ -319,12 +828,12 @@ public abstract class BBMotorController {
      */
     public void setMotionConfig(ControlType controlType) {
         // try to find a set of corresponding configuration
-        int configID = findMotionConfig(controlType);
+        MotionConfigHandle handle = getMotionConfigHandle(controlType);
 
         // if no configuration with the desired control type found, do nothing
-        if (configID == -1) { return; } // rip
-        // set the PID to the found ID
-        setMotionConfig(configID);
+        if (handle == null) { return; } // rip
+        // set the PID to the found configuration
+        setMotionConfig(handle);
     }
 
 
@@ -359,10 +868,18 @@ public abstract class BBMotorController {
         // get the ID to use in motionConfigs
         int id = motionConfigs.size();
 
+        MotionConfigHandle handle = new MotionConfigHandle(this, id, name, config);
+
         // add the configuration to the stored ArrayList
         motionConfigs.add(config);
+        motionConfigHandles.add(handle);
         // name corresponds to id-th set in pidConstants
-        motionConfigNames.put(name, id);
+        motionConfigNames.put(name, handle);
+
+        // first one added for a control type is the one used for it
+        if (config.getControlType() != null && !motionConfigTypes.containsKey(config.getControlType())) {
+            motionConfigTypes.put(config.getControlType(), handle);
+        }
 
         // load in the first few until no more unused slots
         if (slotsUsed < MOTION_SLOTS) {
@@ -392,6 +909,8 @@ public abstract class BBMotorController {
         THETA_UNIT_NU = getThetaUnit_nu();
         OMEGA_UNIT_NU = (new UnitBuilder()).num(THETA_UNIT_NU).denom(TIME_UNIT_NU).make();
         ALPHA_UNIT_NU = (new UnitBuilder()).num(THETA_UNIT_NU).denom(TIME_UNIT_NU, SECOND_TIME_UNIT_NU).make();
+
+        updateScales();
     }
 
 
@@ -425,11 +944,15 @@ public abstract class BBMotorController {
         }
 
         this.radius = new Quantity(radius, LENGTH_UNIT_PU);
+
+        updateScales();
     }
 
     public void setRadius(Quantity radius) {
         if (radius.getUnit().isCompatible(Dimension.Length)) {
             this.radius = radius;
+
+            updateScales();
         }
     }
 
@@ -438,6 +961,8 @@ public abstract class BBMotorController {
         if (radius == null) { return; }
 
         positionMeasurement = PositionMeasurement.Distance;
+
+        updateScales();
     }
 
     public void setMeasurementToDistance(double radius) {
@@ -449,6 +974,8 @@ public abstract class BBMotorController {
         this.radius = new Quantity(radius, LENGTH_UNIT_PU);
 
         positionMeasurement = PositionMeasurement.Distance;
+
+        updateScales();
     }
 
     public void setMeasurementToDistance(Quantity radius) {
@@ -464,10 +991,14 @@ public abstract class BBMotorController {
         }
 
         positionMeasurement = PositionMeasurement.Distance;
+
+        updateScales();
     }
 
     public void setMeasurementToAngle() {
         positionMeasurement = PositionMeasurement.Angle;
+
+        updateScales();
     }
 
     public void setThetaUnit(BaseUnit thetaUnit) {
@@ -521,8 +1052,80 @@ public abstract class BBMotorController {
         
         VEL_UNIT_PU = (new UnitBuilder()).num(LENGTH_UNIT_PU).denom(TIME_UNIT_PU).make();
         ACC_UNIT_PU = (new UnitBuilder()).num(LENGTH_UNIT_PU).denom(SECOND_TIME_UNIT_PU).make();
+
+        updateScales();
+    }
+
+
+
+    /*
+     * Commanding/reading the motor happens every loop (5 ms Notifiers for some of our
+     * stuff), so building Quantities and walking Unit.per there makes a lot of garbage.
+     * Instead, the conversions between preferred and native units are boiled down to
+     * plain doubles whenever the units (or radius) change, and the hot paths are just
+     * a multiply/divide.
+     * 
+     * value_nu = value_pu * scale
+     */
+    /** native position units per preferred position unit (angle or distance) */
+    private double positionScale = 0;
+    /** native velocity units per preferred velocity unit (angle or distance) */
+    private double velocityScale = 0;
+    /** native acceleration units per preferred acceleration unit (angle or distance) */
+    private double accelerationScale = 0;
+
+    /**
+     * Recompute the preferred unit -> native unit scale factors. Anything that changes
+     * the units, the radius or the position measurement needs to call this.
+     */
+    protected void updateScales() {
+        computeScales();
+        updateGainScales();
+    }
+
+    private void computeScales() {
+        if (THETA_UNIT_NU == null) {
+            positionScale = 0;
+            velocityScale = 0;
+            accelerationScale = 0;
+
+            return;
+        }
+
+        // native angle units per preferred position unit
+        double theta;
+
+        if (positionMeasurement == PositionMeasurement.Angle) {
+            theta = THETA_UNIT_NU.per(THETA_UNIT_PU);
+        } else {
+            if (radius == null || LENGTH_UNIT_PU == null) {
+                positionScale = 0;
+                velocityScale = 0;
+                accelerationScale = 0;
+
+                return;
+            }
+
+            // theta = l / r, so one preferred length unit is 1/r radians
+            // (with r in preferred length units)
+            double radius_pu = radius.getValue() * LENGTH_UNIT_PU.per(radius.getUnit());
+
+            theta = THETA_UNIT_NU.per(Units.RAD) / radius_pu;
+        }
+
+        positionScale = theta;
+        // x theta/time_pu = x * (time_pu per time_nu) theta/time_nu
+        velocityScale = positionScale * TIME_UNIT_PU.per(TIME_UNIT_NU);
+        accelerationScale = velocityScale * SECOND_TIME_UNIT_PU.per(SECOND_TIME_UNIT_NU);
     }
 
+    /** @return native position units per preferred position unit */
+    public double getPositionScale() { return positionScale; }
+    /** @return native velocity units per preferred velocity unit */
+    public double getVelocityScale() { return velocityScale; }
+    /** @return native acceleration units per preferred acceleration unit */
+    public double getAccelerationScale() { return accelerationScale; }
+
 
 
     public Quantity toAngular(Quantity tangential) {
@@ -539,6 +1142,9 @@ public abstract class BBMotorController {
 
     public abstract void setInverted(boolean invert);
 
+    /** Get whether the output is inverted (from setInverted()) */
+    public abstract boolean isInverted();
+
     /**
      * Command the position of the motor to a specified amount of encoder ticks
      * 
@@ -547,7 +1153,19 @@ public abstract class BBMotorController {
      */
     protected abstract void cmdPosition_native(double val_nu, ControlType controlMethod);
 
-    public void cmdPosition(double pos, ControlType controlMethod, int configID) {
+    /**
+     * Command a position in preferred units
+     * 
+     * @param pos position in preferred units
+     * @param controlMethod control method (MotionMagic or PID) to be used
+     * @param config motion configuration to use
+     */
+    public void cmdPosition(double pos, ControlType controlMethod, MotionConfigHandle config) {
+        cmdPosition(pos, controlMethod, config, LATENCY.start());
+    }
+
+    /** @param start when the command was made, from LATENCY.start() */
+    private void cmdPosition(double pos, ControlType controlMethod, MotionConfigHandle config, long start) {
         if (controlMethod.getVariable() != ControlType.Variable.Position) {
             return;
         }
@@ -556,41 +1174,46 @@ public abstract class BBMotorController {
             return;
         }
 
-        setMotionConfig(configID);
+        // nothing to command with until its config (or some config) is selected
+        if (setMotionConfig(config) == -1) {
+            return;
+        }
 
-        if (positionMeasurement == PositionMeasurement.Angle) {
-            Quantity quant = new Quantity(pos, THETA_UNIT_PU);
+        // angle or distance already baked into the scale
+        sendPosition_nu(pos * positionScale, controlMethod, start);
+    }
 
-            cmdPosition_native(quant.to(THETA_UNIT_NU).getValue(), controlMethod);
-        // existence of a theta unit guaranteed
-        } else if (positionMeasurement == PositionMeasurement.Distance) {
-            // l = r theta
-            // theta = l / r and also radians are pretty rad
-            Quantity quant = new Quantity(pos, LENGTH_UNIT_PU).divide(radius).multiply(Units.RAD);
+    public void cmdPosition(double pos, ControlType controlMethod, int configID) {
+        long start = LATENCY.start();
 
-            cmdPosition_native(quant.to(THETA_UNIT_NU).getValue(), controlMethod);
-        }
+        cmdPosition(pos, controlMethod, motionConfigHandles.get(configID), start);
     }
 
     public void cmdPosition(double pos, ControlType controlMethod, String configName) {
-        Integer slotID = motionConfigNames.get(configName);
+        long start = LATENCY.start();
+        MotionConfigHandle config = motionConfigNames.get(configName);
 
-        if (slotID == null) {
+        if (config == null) {
             return; // rip ig
         } else {
-            cmdPosition(pos, controlMethod, slotID);
+            cmdPosition(pos, controlMethod, config, start);
         }
     }
 
     public void cmdPosition(double pos, ControlType controlMethod) {
-        int configID = findMotionConfig(controlMethod);
+        long start = LATENCY.start();
+        MotionConfigHandle config = getMotionConfigHandle(controlMethod);
 
-        if (configID != -1) {
-            cmdPosition(pos, controlMethod, configID);
+        if (config != null) {
+            cmdPosition(pos, controlMethod, config, start);
         }
     }
 
-    public void cmdPosition(Quantity quant, ControlType controlMethod, int configID) {
+    public void cmdPosition(Quantity quant, ControlType controlMethod, MotionConfigHandle config) {
+        cmdPosition(quant, controlMethod, config, LATENCY.start());
+    }
+
+    private void cmdPosition(Quantity quant, ControlType controlMethod, MotionConfigHandle config, long start) {
         if (controlMethod.getVariable() != ControlType.Variable.Position) {
             return;
         }
@@ -600,30 +1223,41 @@ public abstract class BBMotorController {
             return;
         }
 
-        setMotionConfig(configID);
+        // nothing to command with until its config (or some config) is selected
+        if (setMotionConfig(config) == -1) {
+            return;
+        }
 
         if (quant.getUnit().isCompatible(THETA_UNIT_PU)) {
-            cmdPosition_native(quant.to(THETA_UNIT_NU).getValue(), controlMethod);
+            sendPosition_nu(quant.to(THETA_UNIT_NU).getValue(), controlMethod, start);
         } else if (LENGTH_UNIT_PU != null && quant.getUnit().isCompatible(LENGTH_UNIT_PU)) {
-            cmdPosition_native(toAngular(quant).to(THETA_UNIT_NU).getValue(), controlMethod);
+            sendPosition_nu(toAngular(quant).to(THETA_UNIT_NU).getValue(), controlMethod, start);
         }
     }
 
+    public void cmdPosition(Quantity quant, ControlType controlMethod, int configID) {
+        long start = LATENCY.start();
+
+        cmdPosition(quant, controlMethod, motionConfigHandles.get(configID), start);
+    }
+
     public void cmdPosition(Quantity quant, ControlType controlMethod, String configName) {
-        Integer pidID = motionConfigNames.get(configName);
+        long start = LATENCY.start();
+        MotionConfigHandle config = motionConfigNames.get(configName);
 
-        if (pidID == null) {
+        if (config == null) {
             return;
         } else {
-            cmdPosition(quant, controlMethod, pidID);
+            cmdPosition(quant, controlMethod, config, start);
         }
     }
 
     public void cmdPosition(Quantity quant, ControlType controlMethod) {
-        int configID = findMotionConfig(controlMethod);
+        long start = LATENCY.start();
+        MotionConfigHandle config = getMotionConfigHandle(controlMethod);
 
-        if (configID != -1) {
-            cmdPosition(quant, controlMethod, configID);
+        if (config != null) {
+            cmdPosition(quant, controlMethod, config, start);
         }
     }
 
@@ -631,72 +1265,100 @@ public abstract class BBMotorController {
 
     protected abstract void cmdVelocity_native(double vel);
 
-    public void cmdVelocity(double vel, int configID) {
+    /**
+     * Command a velocity in preferred units
+     * 
+     * @param vel velocity in preferred units
+     * @param config motion configuration to use
+     */
+    public void cmdVelocity(double vel, MotionConfigHandle config) {
+        cmdVelocity(vel, config, LATENCY.start());
+    }
+
+    /** @param start when the command was made, from LATENCY.start() */
+    private void cmdVelocity(double vel, MotionConfigHandle config, long start) {
         if (OMEGA_UNIT_NU == null) {
             return;
         }
 
-        setMotionConfig(configID);
+        // nothing to command with until its config (or some config) is selected
+        if (setMotionConfig(config) == -1) {
+            return;
+        }
 
-        if (positionMeasurement == PositionMeasurement.Angle) {
-            Quantity quant = new Quantity(vel, OMEGA_UNIT_PU);
+        sendVelocity_nu(vel * velocityScale, start);
+    }
 
-            cmdVelocity_native(quant.to(OMEGA_UNIT_NU).getValue());
-        // existence of a velocity unit guaranteed
-        } else if (positionMeasurement == PositionMeasurement.Distance) {
-            Quantity quant = new Quantity(vel, VEL_UNIT_PU);
+    public void cmdVelocity(double vel, int configID) {
+        long start = LATENCY.start();
 
-            cmdVelocity_native(toAngular(quant).to(OMEGA_UNIT_NU).getValue());
-        }
+        cmdVelocity(vel, motionConfigHandles.get(configID), start);
     }
 
     public void cmdVelocity(double vel, String configName) {
-        Integer configID = motionConfigNames.get(configName);
+        long start = LATENCY.start();
+        MotionConfigHandle config = motionConfigNames.get(configName);
 
-        if (configID == null) {
+        if (config == null) {
             return; // rip ig
         } else {
-            cmdVelocity(vel, configID);
+            cmdVelocity(vel, config, start);
         }
     }
 
     public void cmdVelocity(double vel) {
-        int configID = findMotionConfig(ControlType.Velocity);
+        long start = LATENCY.start();
+        MotionConfigHandle config = getMotionConfigHandle(ControlType.Velocity);
 
-        if (configID != -1) {
-            cmdVelocity(vel, configID);
+        if (config != null) {
+            cmdVelocity(vel, config, start);
         }
     }
 
-    public void cmdVelocity(Quantity vel, int configID) {
+    public void cmdVelocity(Quantity vel, MotionConfigHandle config) {
+        cmdVelocity(vel, config, LATENCY.start());
+    }
+
+    private void cmdVelocity(Quantity vel, MotionConfigHandle config, long start) {
         if (OMEGA_UNIT_NU == null) {
             return;
         }
 
-        setMotionConfig(configID);
+        // nothing to command with until its config (or some config) is selected
+        if (setMotionConfig(config) == -1) {
+            return;
+        }
 
         if (vel.getUnit().isCompatible(OMEGA_UNIT_PU)) {
-            cmdVelocity_native(vel.to(OMEGA_UNIT_NU).getValue());
+            sendVelocity_nu(vel.to(OMEGA_UNIT_NU).getValue(), start);
         } else if (VEL_UNIT_PU != null && vel.getUnit().isCompatible(VEL_UNIT_PU)) {
-            cmdVelocity_native(toAngular(vel).to(OMEGA_UNIT_NU).getValue());
+            sendVelocity_nu(toAngular(vel).to(OMEGA_UNIT_NU).getValue(), start);
         }
     }
 
+    public void cmdVelocity(Quantity vel, int configID) {
+        long start = LATENCY.start();
+
+        cmdVelocity(vel, motionConfigHandles.get(configID), start);
+    }
+
     public void cmdVelocity(Quantity vel, String configName) {
-        Integer configID = motionConfigNames.get(configName);
+        long start = LATENCY.start();
+        MotionConfigHandle config = motionConfigNames.get(configName);
 
-        if (configID == null) {
+        if (config == null) {
             return; // rip ig
         } else {
-            cmdVelocity(vel, configID);
+            cmdVelocity(vel, config, start);
         }
     }
 
     public void cmdVelocity(Quantity vel) {
-        int configID = findMotionConfig(ControlType.Velocity);
+        long start = LATENCY.start();
+        MotionConfigHandle config = getMotionConfigHandle(ControlType.Velocity);
 
-        if (configID != -1) {
-            cmdVelocity(vel, configID);
+        if (config != null) {
+            cmdVelocity(vel, config, start);
         }
     }
 
@@ -705,7 +1367,163 @@ public abstract class BBMotorController {
     protected abstract void cmdPercent_native(double perc);
 
     public void cmdPercent(double perc) {
-        cmdPercent_native(perc);
+        long start = LATENCY.start();
+
+        if (shouldSend(CommandMode.Percent, perc, percentTolerance, start)) {
+            cmdPercent_native(perc);
+
+            TRAFFIC.countCommand();
+            LATENCY.recordSince(LatencyMonitor.Operation.Command, start);
+        }
+    }
+
+
+
+
+
+    /*
+     * Command coalescing. Sending the same command over and over (like setting the
+     * same percent output every loop) is just CAN traffic, so the last command sent
+     * is remembered and a new one only goes through to the motor controller if the
+     * mode or slot changed, the setpoint moved by more than the tolerance, or it's
+     * been longer than the keep-alive interval since the last one went through
+     * (so things like motor safety still see regular updates).
+     *
+     * Commands are timed (for the latency monitor) from when cmd* was called, so the
+     * time includes converting units and selecting the slot, not just the vendor call.
+     */
+    private enum CommandMode {
+        Percent,
+        Position,
+        MotionMagic,
+        Velocity
+    }
+
+    /** Default time after which a repeated command is sent anyways */
+    public static final double DEFAULT_KEEP_ALIVE = 0.05;
+
+    private boolean coalesceCommands = true;
+    private double percentTolerance = 0;
+    private double nativeTolerance = 0;
+    private long keepAliveNanos = (long) (DEFAULT_KEEP_ALIVE * 1e9);
+
+    private CommandMode lastMode = null;
+    private double lastSetpoint = 0;
+    private long lastSendTime = 0;
+    private int selectedSlot = -1;
+
+    private long forwardedCommands = 0;
+    private long coalescedCommands = 0;
+
+    /**
+     * Decide whether a command needs to go to the motor controller, and if so
+     * remember it as the last command
+     *
+     * @param start when the command was made (0 if the latency monitor's off)
+     */
+    private boolean shouldSend(CommandMode mode, double setpoint, double tolerance, long start) {
+        // the command was just made, no need to get the time again
+        long now = (start != 0) ? start : System.nanoTime();
+
+        if (coalesceCommands
+            && mode == lastMode
+            && Math.abs(setpoint - lastSetpoint) <= tolerance
+            && now - lastSendTime < keepAliveNanos) {
+
+            coalescedCommands++;
+
+            return false;
+        }
+
+        lastMode = mode;
+        lastSetpoint = setpoint;
+        lastSendTime = now;
+        forwardedCommands++;
+
+        return true;
+    }
+
+    private void sendPosition_nu(double val_nu, ControlType controlMethod, long start) {
+        CommandMode mode = (controlMethod == ControlType.MotionMagic) ? CommandMode.MotionMagic : CommandMode.Position;
+
+        if (shouldSend(mode, val_nu, nativeTolerance, start)) {
+            cmdPosition_native(val_nu, controlMethod);
+
+            TRAFFIC.countCommand();
+            LATENCY.recordSince(LatencyMonitor.Operation.Command, start);
+        }
+    }
+
+    private void sendVelocity_nu(double vel_nu, long start) {
+        if (shouldSend(CommandMode.Velocity, vel_nu, nativeTolerance, start)) {
+            cmdVelocity_native(vel_nu);
+
+            TRAFFIC.countCommand();
+            LATENCY.recordSince(LatencyMonitor.Operation.Command, start);
+        }
+    }
+
+    private void selectSlot(int slot) {
+        if (coalesceCommands && slot == selectedSlot) {
+            return;
+        }
+
+        selectMotionConfigSlot(slot);
+        TRAFFIC.countCommand();
+
+        selectedSlot = slot;
+        invalidateLastCommand();
+    }
+
+    /**
+     * Make sure the next command goes through to the motor controller, for when
+     * something other than a command changed what the motor controller is doing
+     */
+    public void invalidateLastCommand() {
+        lastMode = null;
+    }
+
+    /**
+     * Turn command coalescing on or off (on by default)
+     *
+     * @param coalesce whether to skip sending repeated commands
+     */
+    public void setCommandCoalescing(boolean coalesce) {
+        coalesceCommands = coalesce;
+
+        invalidateLastCommand();
+    }
+
+    /**
+     * Set how far a setpoint has to move from the last one sent before it's sent
+     * again (0 by default, so any change at all is sent)
+     *
+     * @param percentTolerance tolerance for percent output commands (-1 to 1)
+     * @param nativeTolerance tolerance for position/velocity commands in native units
+     */
+    public void setCommandTolerance(double percentTolerance, double nativeTolerance) {
+        this.percentTolerance = Math.max(0, percentTolerance);
+        this.nativeTolerance = Math.max(0, nativeTolerance);
+    }
+
+    /**
+     * Set how often a repeated command is sent anyways
+     *
+     * @param keepAlive seconds after which a repeated command is sent again
+     */
+    public void setCommandKeepAlive(double keepAlive) {
+        keepAliveNanos = (long) (Math.max(0, keepAlive) * 1e9);
+    }
+
+    /** Get the number of commands that were sent to the motor controller */
+    public long getForwardedCommands() { return forwardedCommands; }
+
+    /** Get the number of commands that were skipped since they repeated the last one */
+    public long getCoalescedCommands() { return coalescedCommands; }
+
+    public void resetCommandCounts() {
+        forwardedCommands = 0;
+        coalescedCommands = 0;
     }
 
 
@@ -732,12 +1550,149 @@ public abstract class BBMotorController {
 
 
 
+    /*
+     * Sensor readings. Subclasses implement the read* methods, which go to the
+     * motor controller (JNI/CAN) every time they're called. Once refreshSensors()
+     * has been called, the public getters instead serve from a snapshot taken by
+     * the last refresh, so however many things ask for the same motor's position
+     * in a loop cycle, the motor controller is only read once.
+     */
+    private final SensorSnapshot SNAPSHOT = new SensorSnapshot();
+    private boolean useSnapshot = false;
+
+    protected abstract double readPosition_nu();
+    protected abstract double readVelocity_nu();
+    protected abstract double readVoltage();
+    protected abstract double readPercentVoltage();
+    protected abstract double readCurrent();
+
+    /**
+     * Read every sensor once into the snapshot. Call this once per loop cycle
+     * (before anything uses this motor); from then on the getters all use the
+     * snapshot until the next refresh.
+     */
+    public void refreshSensors() {
+        SensorPoller.Channel channel = sensorChannel;
+
+        // if a SensorPoller is reading this motor, just take its latest readings
+        if (channel == null || !channel.read(SNAPSHOT)) {
+            readSensors(SNAPSHOT);
+        }
+
+        useSnapshot = true;
+
+        LATENCY.recordSince(LatencyMonitor.Operation.SensorAge, SNAPSHOT.getTimestamp());
+
+        // a poller that hasn't polled since the last refresh gives the same readings again
+        if (hasDiagnostics && SNAPSHOT.getTimestamp() != diagnosticData.getLastTimestamp()) {
+            diagnosticData.add(SNAPSHOT);
+        }
+    }
+
+    /**
+     * Read every sensor from the motor controller
+     *
+     * @param snapshot snapshot to read into
+     */
+    void readSensors(SensorSnapshot snapshot) {
+        long start = LATENCY.start();
+
+        double pos_nu = 0;
+        double vel_nu = 0;
+
+        // some motor controllers can't read anything without a sensor
+        if (sensor != null) {
+            pos_nu = readPosition_nu();
+            vel_nu = readVelocity_nu();
+        }
+
+        snapshot.set(System.nanoTime(), pos_nu, vel_nu, readVoltage(), readPercentVoltage(), readCurrent());
+
+        LATENCY.recordSince(LatencyMonitor.Operation.SensorRead, start);
+    }
+
+    /** set by SensorPoller when this motor is registered with it */
+    volatile SensorPoller.Channel sensorChannel;
+
+    /**
+     * Choose whether the getters serve from the snapshot (refreshSensors() turns
+     * this on) or read the motor controller every time
+     */
+    public void setUseSnapshot(boolean useSnapshot) {
+        this.useSnapshot = useSnapshot;
+    }
+
+    public boolean isUsingSnapshot() {
+        return useSnapshot;
+    }
+
+    /** Get the snapshot from the last refreshSensors() (don't hold onto it, it gets reused) */
+    public SensorSnapshot getSnapshot() {
+        return SNAPSHOT;
+    }
+
+
+
+    /*
+     * Status frames. How fresh the readings are depends on how often the motor
+     * controller sends the status frame they come in; a StatusFrameManager sets
+     * these for every motor based on what's being read.
+     *
+     * Every frame sent to the motor controller (commands, configs, status frame
+     * changes) is also counted in its CANTraffic, which a CANBusEstimator uses to
+     * work out the bus load.
+     */
+    private final CANTraffic TRAFFIC;
+
+    /**
+     * Get what kind of device this is on the CAN bus (called from the constructor,
+     * so just return a constant)
+     */
+    protected abstract CANDeviceType getCANDeviceType();
+
+    public CANTraffic getCANTraffic() {
+        return TRAFFIC;
+    }
+
+    @Override
+    public StatusFrame getStatusFrame(StatusSignal signal) {
+        return null;
+    }
+
+    @Override
+    public int getDefaultStatusFramePeriod(StatusFrame frame) {
+        return getCANDeviceType().getDefaultStatusFramePeriod(frame);
+    }
+
+    @Override
+    public int getStatusFramePeriod(StatusFrame frame) {
+        return TRAFFIC.getStatusFramePeriod(frame);
+    }
+
+    @Override
+    public void setStatusFramePeriod(StatusFrame frame, int period_ms) {
+        if (getDefaultStatusFramePeriod(frame) == 0) {
+            return; // doesn't have it
+        }
+
+        setStatusFramePeriod_native(frame, period_ms);
+
+        TRAFFIC.setStatusFramePeriod(frame, period_ms);
+        TRAFFIC.countConfig(1);
+    }
+
+    protected void setStatusFramePeriod_native(StatusFrame frame, int period_ms) {}
+
+
+
     /**
      * Return the position read on the encoder in ticks
      * 
      * @return position on the encoder in ticks
      */
-    public abstract double getPosition_nu();
+    public double getPosition_nu() {
+        return useSnapshot ? SNAPSHOT.getPosition_nu() : readPosition_nu();
+    }
 
 
 
@@ -747,18 +1702,11 @@ public abstract class BBMotorController {
      * @return position on the encoder in preferred units
      */
     public double getPosition() {
-    	if (THETA_UNIT_NU == null) {
+    	if (THETA_UNIT_NU == null || positionScale == 0) {
     		return 0;
     	}
-    	
-        Quantity theta_nu = new Quantity(getPosition_nu(), THETA_UNIT_NU);
 
-        if (positionMeasurement == PositionMeasurement.Angle) {
-            return theta_nu.to(THETA_UNIT_PU).getValue();
-        } else {
-            // l = r theta but theta in rads that don't really exist but oh well
-            return theta_nu.to(Units.RAD).divide(Units.RAD).multiply(radius).getValue();
-        }
+        return getPosition_nu() / positionScale;
     }
 
     public double getPosition(BaseUnit unit) {
@@ -787,24 +1735,31 @@ public abstract class BBMotorController {
 
     protected abstract void setPosition_nu(double pos_nu);
 
+    /** Set the encoder position and keep the snapshot in line with it */
+    private void writePosition_nu(double pos_nu) {
+        setPosition_nu(pos_nu);
+
+        SNAPSHOT.setPosition_nu(pos_nu);
+    }
+
     public void setPosition(double pos_pu) {
-        if (positionMeasurement == PositionMeasurement.Angle) {
-            setPosition_nu((new Quantity(pos_pu, THETA_UNIT_PU)).to(THETA_UNIT_NU).getValue());
-        } else {
-            setPosition_nu(toAngular(new Quantity(pos_pu, LENGTH_UNIT_PU)).to(THETA_UNIT_NU).getValue());
+        if (THETA_UNIT_NU == null) {
+            return;
         }
+
+        writePosition_nu(pos_pu * positionScale);
     }
 
     public void setPosition(Quantity quant) {
         if (quant.getUnit().isCompatible(Dimension.Angle)) {
-            setPosition_nu(quant.to(THETA_UNIT_NU).getValue());
+            writePosition_nu(quant.to(THETA_UNIT_NU).getValue());
         } else if (quant.getUnit().isCompatible(LENGTH_UNIT_PU)) {
-            setPosition_nu(toAngular(quant).to(THETA_UNIT_NU).getValue());
+            writePosition_nu(toAngular(quant).to(THETA_UNIT_NU).getValue());
         }
     }
 
     public void zero() {
-        setPosition_nu(0);
+        writePosition_nu(0);
     }
 
 
@@ -814,21 +1769,20 @@ public abstract class BBMotorController {
      * 
      * @return velocity in native encoder units
      */
-    public abstract double getVelocity_nu();
+    public double getVelocity_nu() {
+        return useSnapshot ? SNAPSHOT.getVelocity_nu() : readVelocity_nu();
+    }
 
     /**
      * Get the velocity of the object in preferred units of the object
      */
     public double getVelocity() {
-        // ticks per TIME_PERIOD
-        Quantity vel_nu = new Quantity(getVelocity_nu(), OMEGA_UNIT_NU);
-
-        if (positionMeasurement == PositionMeasurement.Angle) {
-            return vel_nu.to(OMEGA_UNIT_PU).getValue();
-        } else {
-            // v = r omega but omega in rads that don't really exist but oh well
-            return vel_nu.to(RAD_PER_TIME).divide(Units.RAD).multiply(radius).getValue();
+        if (THETA_UNIT_NU == null || velocityScale == 0) {
+            return 0;
         }
+
+        // ticks per TIME_PERIOD -> preferred units
+        return getVelocity_nu() / velocityScale;
     }
 
 
@@ -846,17 +1800,73 @@ public abstract class BBMotorController {
 
     
     /** Get the voltage drop across the motor in volts (V) */
-    public abstract double getVoltage();
+    public double getVoltage() {
+        return useSnapshot ? SNAPSHOT.getVoltage() : readVoltage();
+    }
 
     /** Get the percentage (0 to 1) of the robot's voltage that is seen by the motor controller*/
-    public abstract double getPercentVoltage();
+    public double getPercentVoltage() {
+        return useSnapshot ? SNAPSHOT.getPercentVoltage() : readPercentVoltage();
+    }
+
+    /** Get the current through the motor in amps (A) */
+    public double getCurrent() {
+        return useSnapshot ? SNAPSHOT.getCurrent() : readCurrent();
+    }
 
-    public abstract double getCurrent();
 
 
+    /**
+     * Check whether this motor controller can follow another one in hardware (so it
+     * mirrors the leader's output without being sent any commands)
+     *
+     * @param motorController potential leader
+     */
+    public boolean canFollow(BBMotorController motorController) {
+        return false;
+    }
 
+    /** Follow another motor controller in hardware, does nothing if canFollow() is false for it */
     public abstract void follow(BBMotorController motorController);
 
+    /**
+     * Check whether setInverted() on a hardware follower is relative to its leader
+     * (inverted means opposite to the leader) instead of absolute like on any other
+     * motor controller
+     */
+    protected boolean isFollowerInversionRelative() {
+        return false;
+    }
+
+
+
+
+
+    /*
+     * Latency instrumentation. Commands, config writes and sensor reads all record how
+     * long they took into the latency monitor, and refreshSensors() records how old
+     * the readings it took were.
+     */
+    private final LatencyMonitor LATENCY = new LatencyMonitor();
+
+    public LatencyMonitor getLatencyMonitor() {
+        return LATENCY;
+    }
+
+    /**
+     * Write the latency histograms to this motor's folder on the RIO
+     *
+     * @return false if they couldn't be written
+     */
+    public boolean dumpLatency() {
+        File folder = new File(RoboRIOFS.MOTOR_DATA_NAME + getDeviceID() + "/");
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+
+        return LATENCY.writeTo(new File(folder, "latency.txt"));
+    }
+
 
 
 
@@ -877,6 +1887,40 @@ public abstract class BBMotorController {
 
 
 
-    protected boolean hasDiagnostics;
-    protected DataWindow<MotorInfo> diagnosticData;
+    /*
+     * Diagnostics. Every refreshSensors() adds its readings to a ring buffer, which
+     * can be copied out (from any thread) or written to a file after the fact.
+     */
+    /** readings kept by default, 5 s of 5 ms loops */
+    public static final int DEFAULT_DIAGNOSTIC_SAMPLES = 1000;
+
+    protected boolean hasDiagnostics = true;
+    protected final MotorDiagnostics diagnosticData = new MotorDiagnostics(DEFAULT_DIAGNOSTIC_SAMPLES);
+
+    /** Turn recording readings for diagnostics on or off (on by default) */
+    public void setDiagnostics(boolean diagnostics) {
+        hasDiagnostics = diagnostics;
+    }
+
+    public boolean hasDiagnostics() {
+        return hasDiagnostics;
+    }
+
+    public MotorDiagnostics getDiagnostics() {
+        return diagnosticData;
+    }
+
+    /**
+     * Write the diagnostic readings to this motor's folder on the RIO
+     *
+     * @return false if they couldn't be written
+     */
+    public boolean dumpDiagnostics() {
+        File folder = new File(RoboRIOFS.MOTOR_DATA_NAME + getDeviceID() + "/");
+        if (!folder.exists()) {
+            folder.mkdirs();
+        }
+
+        return diagnosticData.writeTo(new File(folder, "diagnostics.csv"));
+    }
 }
\ No newline at end of file
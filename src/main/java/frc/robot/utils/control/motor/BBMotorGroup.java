@@ -0,0 +1,227 @@
+package frc.robot.utils.control.motor;
+
+import java.util.ArrayList;
+
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.math.units.Quantity;
+
+
+
+/**
+ * A bunch of motor controllers (of any mix of types) that all do the same thing, like
+ * one side of a drive train. Commands go to the group once and the group gets them to
+ * every motor:
+ * - motors that can follow the leader in hardware (same type of motor controller as
+ *   the leader) are set to follow it once and never sent anything again
+ * - everything else gets the same command in one loop (in preferred units, so each
+ *   motor converts it to its own native units and uses its own motion configs)
+ *
+ * Set up the units and motion configs of every motor before commanding the group,
+ * the group doesn't do that for you.
+ *
+ * Telemetry works the same way: refreshSensors() reads every motor once per cycle and
+ * the group totals/averages come from those snapshots.
+ */
+public class BBMotorGroup {
+    private final BBMotorController LEADER;
+
+    /** every motor in the group, leader first */
+    private final ArrayList<BBMotorController> MOTORS = new ArrayList<BBMotorController>();
+    /** motors following the leader in hardware */
+    private final ArrayList<BBMotorController> FOLLOWERS = new ArrayList<BBMotorController>();
+    /** motors that have to be sent every command (not including the leader) */
+    private final ArrayList<BBMotorController> FAN_OUT = new ArrayList<BBMotorController>();
+
+    private double totalCurrent = 0;
+    private double maxCurrent = 0;
+    private double meanVelocity = 0;
+    private double meanPosition = 0;
+    private double meanVoltage = 0;
+
+
+
+    /**
+     * Create a motor group
+     *
+     * @param leader motor every other one follows (if it can)
+     * @param motors other motors in the group
+     */
+    public BBMotorGroup(BBMotorController leader, BBMotorController... motors) {
+        LEADER = leader;
+        MOTORS.add(leader);
+
+        for (BBMotorController motor : motors) {
+            add(motor);
+        }
+    }
+
+
+
+    /**
+     * Add a motor to the group, spinning the same way as the leader
+     *
+     * @param motor motor to add
+     */
+    public void add(BBMotorController motor) {
+        add(motor, false);
+    }
+
+    /**
+     * Add a motor to the group. Invert the leader (if it needs to be) before adding
+     * anything, since everything's inverted relative to it.
+     *
+     * @param motor motor to add
+     * @param inverted whether it should spin opposite to the leader
+     */
+    public void add(BBMotorController motor, boolean inverted) {
+        if (MOTORS.contains(motor)) {
+            return;
+        }
+
+        boolean follows = motor.canFollow(LEADER);
+
+        // setInverted() is absolute, except on followers that follow relative to the leader
+        if (follows && motor.isFollowerInversionRelative()) {
+            motor.setInverted(inverted);
+        } else {
+            motor.setInverted(LEADER.isInverted() ^ inverted);
+        }
+
+        MOTORS.add(motor);
+
+        if (follows) {
+            motor.follow(LEADER);
+            FOLLOWERS.add(motor);
+        } else {
+            FAN_OUT.add(motor);
+        }
+    }
+
+
+
+    /*
+     * Commands. The leader (and so every hardware follower) gets the command, then it
+     * gets fanned out to everything else. Each motor coalesces repeated commands itself.
+     */
+    public void cmdPercent(double perc) {
+        LEADER.cmdPercent(perc);
+
+        for (int i = 0; i < FAN_OUT.size(); i++) {
+            FAN_OUT.get(i).cmdPercent(perc);
+        }
+    }
+
+    /**
+     * Command a velocity in preferred units, each motor uses its own velocity config
+     *
+     * @param vel velocity in preferred units
+     */
+    public void cmdVelocity(double vel) {
+        LEADER.cmdVelocity(vel);
+
+        for (int i = 0; i < FAN_OUT.size(); i++) {
+            FAN_OUT.get(i).cmdVelocity(vel);
+        }
+    }
+
+    public void cmdVelocity(Quantity vel) {
+        LEADER.cmdVelocity(vel);
+
+        for (int i = 0; i < FAN_OUT.size(); i++) {
+            FAN_OUT.get(i).cmdVelocity(vel);
+        }
+    }
+
+    /**
+     * Command a position in preferred units, each motor uses its own config for the
+     * control method
+     *
+     * @param pos position in preferred units
+     * @param controlMethod control method (MotionMagic or PID) to be used
+     */
+    public void cmdPosition(double pos, ControlType controlMethod) {
+        LEADER.cmdPosition(pos, controlMethod);
+
+        for (int i = 0; i < FAN_OUT.size(); i++) {
+            FAN_OUT.get(i).cmdPosition(pos, controlMethod);
+        }
+    }
+
+    public void cmdPosition(Quantity pos, ControlType controlMethod) {
+        LEADER.cmdPosition(pos, controlMethod);
+
+        for (int i = 0; i < FAN_OUT.size(); i++) {
+            FAN_OUT.get(i).cmdPosition(pos, controlMethod);
+        }
+    }
+
+    public void stop() {
+        cmdPercent(0);
+    }
+
+
+
+    /**
+     * Read every motor's sensors once and update the group telemetry. Call this once
+     * per loop cycle; after it every motor's getters use its snapshot too.
+     */
+    public void refreshSensors() {
+        double current = 0;
+        double max = 0;
+        double vel = 0;
+        double pos = 0;
+        double voltage = 0;
+
+        int n = MOTORS.size();
+
+        for (int i = 0; i < n; i++) {
+            BBMotorController motor = MOTORS.get(i);
+
+            motor.refreshSensors();
+
+            double motorCurrent = motor.getCurrent();
+            current += motorCurrent;
+            max = Math.max(max, motorCurrent);
+
+            vel += motor.getVelocity();
+            pos += motor.getPosition();
+            voltage += motor.getVoltage();
+        }
+
+        totalCurrent = current;
+        maxCurrent = max;
+        meanVelocity = vel / n;
+        meanPosition = pos / n;
+        meanVoltage = voltage / n;
+    }
+
+    /** Get the total current through every motor in amps (A) as of the last refresh */
+    public double getTotalCurrent() { return totalCurrent; }
+
+    /** Get the highest current through any one motor in amps (A) as of the last refresh */
+    public double getMaxCurrent() { return maxCurrent; }
+
+    /** Get the average velocity of the motors in preferred units as of the last refresh */
+    public double getMeanVelocity() { return meanVelocity; }
+
+    /** Get the average position of the motors in preferred units as of the last refresh */
+    public double getMeanPosition() { return meanPosition; }
+
+    /** Get the average voltage across the motors in volts (V) as of the last refresh */
+    public double getMeanVoltage() { return meanVoltage; }
+
+
+
+    public BBMotorController getLeader() { return LEADER; }
+
+    /** Get the number of motors in the group (including the leader) */
+    public int size() { return MOTORS.size(); }
+
+    public BBMotorController get(int i) { return MOTORS.get(i); }
+
+    /** Get the number of motors following the leader in hardware */
+    public int getFollowerCount() { return FOLLOWERS.size(); }
+
+    /** Get the number of motors sent every command besides the leader */
+    public int getFanOutCount() { return FAN_OUT.size(); }
+}
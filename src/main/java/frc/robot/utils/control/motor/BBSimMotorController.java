@@ -0,0 +1,629 @@
+package frc.robot.utils.control.motor;
+
+
+
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.pidf.PID;
+import frc.robot.utils.control.pidf.PIDF;
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.status.CANDeviceType;
+import frc.robot.utils.control.motor.status.StatusFrame;
+import frc.robot.utils.control.motor.status.StatusSignal;
+import frc.robot.utils.control.statespace.models.motors.Motor;
+
+import frc.robot.utils.math.units.Units;
+import frc.robot.utils.math.units.BaseUnit;
+
+import java.util.concurrent.locks.LockSupport;
+
+
+
+/**
+ * Simulated motor controller so our control code can run off the robot (on a laptop,
+ * in benchmarks, etc) without any vendor libraries or hardware.
+ *
+ * The motor is modeled as a DC motor with no inductance driving a pure inertia:
+ *     I = (V - K_W * omega) / R
+ *     J * alpha = K_T * I - b * omega
+ * using the constants from a statespace Motor. For a constant voltage that has an
+ * exact solution, so the integration is stable for any step size.
+ *
+ * Nothing moves on its own: call update(dt) to advance the simulation by dt seconds,
+ * which it does in steps of at most the configured step size. The closed loop runs
+ * once per step like a Talon's 1ms loop, so it runs faster than real time as long
+ * as you call update faster than real time.
+ *
+ * It pretends to be a TalonSRX as far as native units go: positions are in whole
+ * encoder ticks, velocities in (whole) ticks per 100ms, accelerations per second,
+ * output is -1023 to 1023 for the gains, current is read in 0.125A steps, and there
+ * are 2 motion config slots.
+ */
+public class BBSimMotorController extends BBMotorController {
+    /** How much of the supply voltage full output is */
+    public static final double DEFAULT_SUPPLY_VOLTAGE = 12;
+    /** Default moment of inertia of the load, in kg m^2 */
+    public static final double DEFAULT_INERTIA = 0.001;
+    /** Default simulation step in seconds (also the closed loop period) */
+    public static final double DEFAULT_STEP = 0.001;
+
+    /** Gains are in units of output per native unit of error where full output is this */
+    private static final double FULL_OUTPUT_NU = 1023;
+    /** Resolution of current readings in amps */
+    private static final double CURRENT_RESOLUTION = 0.125;
+
+    private static final int SLOTS = 2;
+
+
+
+    private enum Mode {
+        Percent,
+        Position,
+        MotionMagic,
+        Velocity,
+        Follower
+    }
+
+
+
+    private final double B;
+    private final double R;
+    private final double K_T;
+    private final double K_W;
+
+    private double inertia;
+    private double step;
+    private double supplyVoltage = DEFAULT_SUPPLY_VOLTAGE;
+
+    // mechanical state, in SI and in terms of the shaft (not the sensor)
+    private double theta = 0;
+    private double omega = 0;
+    private double current = 0;
+    private double time = 0;
+
+    /** output from -1 to 1 after ramping */
+    private double output = 0;
+
+    private Mode mode = Mode.Percent;
+    private double setpoint = 0;
+    private BBSimMotorController leader;
+
+    private boolean inverted = false;
+    private boolean sensorPhase = false;
+    /** sensor reading at theta = 0, from setPosition_nu */
+    private double sensorOffset = 0;
+    /** encoder ticks per radian, 0 if no encoder */
+    private double ticksPerRad = 0;
+    private BaseUnit tick;
+
+    /** how long each config call blocks for, like a real CAN config frame */
+    private long configDelayNanos = 0;
+    private volatile long configWrites = 0;
+
+    private double openLoopRamp = 0;
+    private double closedLoopRamp = 0;
+
+    // per slot gains, Talon style
+    private final double[] KP = new double[SLOTS];
+    private final double[] KI = new double[SLOTS];
+    private final double[] KD = new double[SLOTS];
+    private final double[] KF = new double[SLOTS];
+    private final double[] IZONE = new double[SLOTS];
+    private final double[] CRUISE_VEL = new double[SLOTS];
+    private final double[] ACC = new double[SLOTS];
+    private int selectedSlot = 0;
+
+    // closed loop state
+    private double integral = 0;
+    private double lastError = 0;
+    private boolean hasLastError = false;
+
+    // motion magic profile, in ticks and ticks/s
+    private double profilePos = 0;
+    private double profileVel = 0;
+
+
+
+    public BBSimMotorController(int deviceID, Motor motor) {
+        this(deviceID, motor, DEFAULT_INERTIA, DEFAULT_STEP);
+    }
+
+    /**
+     * Create a simulated motor controller
+     *
+     * @param deviceID ID of the controller
+     * @param motor motor being driven
+     * @param inertia moment of inertia of the load on the shaft in kg m^2
+     * @param step simulation step in seconds
+     */
+    public BBSimMotorController(int deviceID, Motor motor, double inertia, double step) {
+        super(deviceID);
+
+        B = motor.getb().getValue(Units.Nm.divide(Units.RAD_PER_S));
+        R = motor.getR().getValue(Units.Ohm);
+        K_T = motor.getKT().getValue(Units.Nm.divide(Units.A));
+        K_W = motor.getKW().getValue(Units.V.divide(Units.RAD_PER_S));
+
+        setInertia(inertia);
+        setStep(step);
+    }
+
+
+
+    public void setInertia(double inertia) {
+        if (inertia > 0) {
+            this.inertia = inertia;
+        }
+    }
+
+    public void setStep(double step) {
+        if (step > 0) {
+            this.step = step;
+        }
+    }
+
+    public void setSupplyVoltage(double supplyVoltage) {
+        this.supplyVoltage = supplyVoltage;
+    }
+
+    /**
+     * Make config calls (gains, motion magic, ...) block like they would on a real
+     * motor controller, to see what that does to whatever's calling them
+     *
+     * @param delay seconds each config call takes
+     */
+    public void setConfigDelay(double delay) {
+        configDelayNanos = (long) (Math.max(0, delay) * 1e9);
+    }
+
+    /** Get the number of config calls made */
+    public long getConfigWrites() { return configWrites; }
+
+    private void configCall() {
+        configWrites++;
+
+        long end = System.nanoTime() + configDelayNanos;
+        long left = configDelayNanos;
+
+        while (left > 0) {
+            LockSupport.parkNanos(left);
+
+            left = end - System.nanoTime();
+        }
+    }
+
+    public double getStep() { return step; }
+    public double getInertia() { return inertia; }
+    /** Seconds simulated so far */
+    public double getTime() { return time; }
+
+    /** Angle of the shaft in radians (not affected by inversion/sensor phase/zeroing) */
+    public double getShaftAngle() { return theta; }
+    /** Angular velocity of the shaft in rad/s */
+    public double getShaftVelocity() { return omega; }
+
+
+
+    /**
+     * Advance the simulation
+     *
+     * @param dt seconds to simulate
+     */
+    public void update(double dt) {
+        while (dt > 0) {
+            double h = Math.min(step, dt);
+
+            stepOnce(h);
+
+            dt -= h;
+        }
+    }
+
+    private void stepOnce(double h) {
+        double target = computeOutput(h);
+        double ramp = (mode == Mode.Percent || mode == Mode.Follower) ? openLoopRamp : closedLoopRamp;
+
+        if (ramp > 0) {
+            double maxChange = h / ramp;
+
+            target = Math.max(output - maxChange, Math.min(output + maxChange, target));
+        }
+
+        output = Math.max(-1, Math.min(1, target));
+
+        double voltage = getShaftVoltage();
+
+        // omega' = c - k omega, solved exactly over the step
+        double k = (K_T * K_W / R + B) / inertia;
+        double c = K_T * voltage / (R * inertia);
+        double omegaSS = c / k;
+        double decay = Math.exp(-k * h);
+
+        theta += omegaSS * h + (omega - omegaSS) * (1 - decay) / k;
+        omega = omegaSS + (omega - omegaSS) * decay;
+        current = (voltage - K_W * omega) / R;
+
+        time += h;
+    }
+
+    /** Voltage across the motor, with inversion applied */
+    private double getShaftVoltage() {
+        return (inverted ? -1 : 1) * output * supplyVoltage;
+    }
+
+    /** Sign from the shaft to the sensor */
+    private double getSensorSign() {
+        return (inverted != sensorPhase) ? -1 : 1;
+    }
+
+
+
+    /** Run the closed loop (if any) and get the requested output from -1 to 1 */
+    private double computeOutput(double h) {
+        switch (mode) {
+            case Percent: {
+                return setpoint;
+            }
+            case Follower: {
+                return (leader == null) ? 0 : leader.output;
+            }
+            case Position: {
+                return closedLoop(setpoint, sensorPosition_nu(), setpoint, h);
+            }
+            case Velocity: {
+                return closedLoop(setpoint, sensorVelocity_nu(), setpoint, h);
+            }
+            case MotionMagic: {
+                updateProfile(h);
+
+                // kF is in terms of velocity (ticks/100ms) for motion magic
+                return closedLoop(profilePos, sensorPosition_nu(), profileVel / 10, h);
+            }
+            default: {
+                return 0;
+            }
+        }
+    }
+
+    private double closedLoop(double target, double measured, double feedforward, double h) {
+        int slot = selectedSlot;
+        double error = target - measured;
+
+        if (IZONE[slot] != 0 && Math.abs(error) > IZONE[slot]) {
+            integral = 0;
+        } else {
+            integral += error * h * 1000; // per 1ms loop
+        }
+
+        double deriv = hasLastError ? (error - lastError) / (h * 1000) : 0;
+        lastError = error;
+        hasLastError = true;
+
+        double out = KP[slot] * error + KI[slot] * integral + KD[slot] * deriv + KF[slot] * feedforward;
+
+        return out / FULL_OUTPUT_NU;
+    }
+
+    /** Trapezoidal motion magic profile towards the setpoint */
+    private void updateProfile(double h) {
+        // cruise velocity is per 100ms, acceleration per 100ms per s
+        double vMax = CRUISE_VEL[selectedSlot] * 10;
+        double aMax = ACC[selectedSlot] * 10;
+
+        if (vMax <= 0 || aMax <= 0) {
+            profilePos = setpoint;
+            profileVel = 0;
+
+            return;
+        }
+
+        double remaining = setpoint - profilePos;
+        double dir = Math.signum(remaining);
+        double stopping = profileVel * profileVel / (2 * aMax);
+
+        double targetVel;
+        if (Math.abs(remaining) <= stopping && Math.signum(profileVel) == dir) {
+            targetVel = 0; // time to slow down
+        } else {
+            targetVel = dir * vMax;
+        }
+
+        double dv = Math.max(-aMax * h, Math.min(aMax * h, targetVel - profileVel));
+        profileVel += dv;
+        profilePos += profileVel * h;
+
+        // don't overshoot (or wobble around) the end
+        if (Math.signum(setpoint - profilePos) != dir || dir == 0) {
+            profilePos = setpoint;
+            profileVel = 0;
+        }
+    }
+
+    private void resetClosedLoop() {
+        integral = 0;
+        hasLastError = false;
+    }
+
+    private void setMode(Mode newMode) {
+        if (newMode != mode) {
+            resetClosedLoop();
+
+            if (newMode == Mode.MotionMagic) {
+                profilePos = sensorPosition_nu();
+                profileVel = sensorVelocity_nu() * 10;
+            }
+
+            mode = newMode;
+        }
+    }
+
+
+
+    @Override
+    protected void loadPID(PID constants, int slot) {
+        configCall();
+
+        KP[slot] = constants.getKP();
+        KI[slot] = constants.getKI();
+        KD[slot] = constants.getKD();
+        IZONE[slot] = (int) constants.getIZone();
+    }
+
+    @Override
+    protected void loadPIDF(PIDF constants, int slot) {
+        loadPID(constants, slot);
+
+        configCall();
+        KF[slot] = constants.getKF();
+    }
+
+    /** Get the kP written into a slot, in native units (so whatever loads it can be checked) */
+    public double getKP(int slot) {
+        return KP[slot];
+    }
+
+    @Override
+    protected void clearPIDF(int slot) {
+        configCall();
+
+        KP[slot] = 0;
+        KI[slot] = 0;
+        KD[slot] = 0;
+        KF[slot] = 0;
+        IZONE[slot] = 0;
+    }
+
+    @Override
+    protected int getMaxMotionSlots() { return SLOTS; }
+
+    @Override
+    protected double getFullOutput_nu() { return FULL_OUTPUT_NU; }
+
+
+
+    @Override
+    public void selectMotionConfigSlot(int slot) {
+        if (slot != selectedSlot) {
+            resetClosedLoop();
+        }
+
+        selectedSlot = slot;
+    }
+
+    /** Get the slot the closed loop is currently using */
+    public int getSelectedSlot() {
+        return selectedSlot;
+    }
+
+
+
+    @Override
+    public void cmdPosition_native(double val_nu, ControlType controlMethod) {
+        Mode newMode;
+
+        switch (controlMethod) {
+            case Position: {
+                newMode = Mode.Position;
+                break;
+            }
+            case MotionMagic: {
+                newMode = Mode.MotionMagic;
+                break;
+            }
+            default: {
+                return;
+            }
+        }
+
+        setMode(newMode);
+        setpoint = Math.round(val_nu);
+    }
+
+    @Override
+    protected void cmdVelocity_native(double vel) {
+        setMode(Mode.Velocity);
+        setpoint = (int) vel;
+    }
+
+    @Override
+    public void cmdPercent_native(double perc) {
+        setMode(Mode.Percent);
+        setpoint = Math.max(-1, Math.min(1, perc));
+    }
+
+    @Override
+    protected void loadMotionMagic(double acc, double vel, int slot) {
+        configCall();
+
+        ACC[slot] = Math.round(acc);
+        CRUISE_VEL[slot] = Math.round(vel);
+    }
+
+    @Override
+    protected void clearMotionMagic(int slot) {
+        configCall();
+
+        ACC[slot] = 0;
+        CRUISE_VEL[slot] = 0;
+    }
+
+    @Override
+    protected void addQuadratureEncoder(QuadratureEncoder sensor) {
+        ticksPerRad = sensor.getTicksPerRev() / (2 * Math.PI);
+        sensorOffset = -getSensorSign() * theta * ticksPerRad;
+        tick = null;
+    }
+
+
+
+    private double sensorPosition_nu() {
+        return Math.floor(sensorOffset + getSensorSign() * theta * ticksPerRad);
+    }
+
+    private double sensorVelocity_nu() {
+        return (int) (getSensorSign() * omega * ticksPerRad / 10);
+    }
+
+    @Override
+    protected double readPosition_nu() {
+        return sensorPosition_nu();
+    }
+
+    @Override
+    protected void setPosition_nu(double pos_nu) {
+        sensorOffset = Math.round(pos_nu) - getSensorSign() * theta * ticksPerRad;
+    }
+
+    @Override
+    protected double readVelocity_nu() {
+        return sensorVelocity_nu();
+    }
+
+
+
+    @Override
+    protected BaseUnit getTimeUnit_nu() {
+        return Units.MS100;
+    }
+
+    @Override
+    protected BaseUnit getSecondTimeUnit_nu() {
+        return Units.S;
+    }
+
+    @Override
+    protected BaseUnit getThetaUnit_nu() {
+        if (sensor == null) {
+            return null;
+        }
+
+        if (tick == null) {
+            tick = new BaseUnit(Units.REV, sensor.getTicksPerRev(), "tick");
+        }
+
+        return tick;
+    }
+
+
+
+    @Override
+    protected double readVoltage() {
+        return getShaftVoltage();
+    }
+
+    @Override
+    protected double readPercentVoltage() {
+        return output;
+    }
+
+    @Override
+    protected double readCurrent() {
+        return Math.round(Math.abs(current) / CURRENT_RESOLUTION) * CURRENT_RESOLUTION;
+    }
+
+
+
+    /*
+     * Status frames, Talon style. Periods aren't simulated (readings are always
+     * fresh), but what they're set to is in getCANTraffic() like for any motor
+     * controller, so whatever sets them can be checked.
+     */
+    @Override
+    protected CANDeviceType getCANDeviceType() {
+        return CANDeviceType.TalonSRX;
+    }
+
+    @Override
+    public StatusFrame getStatusFrame(StatusSignal signal) {
+        switch (signal) {
+            case Position:
+            case Velocity:
+            case Current: {
+                return StatusFrame.Feedback;
+            }
+            case Voltage:
+            case PercentVoltage: {
+                return StatusFrame.General;
+            }
+            default: {
+                return null;
+            }
+        }
+    }
+
+
+
+    @Override
+    public boolean canFollow(BBMotorController motorController) {
+        return motorController instanceof BBSimMotorController;
+    }
+
+    @Override
+    public void follow(BBMotorController motorController) {
+        if (canFollow(motorController)) {
+            leader = (BBSimMotorController) motorController;
+
+            setMode(Mode.Follower);
+
+            // following replaces whatever was last commanded
+            invalidateLastCommand();
+        }
+    }
+
+
+
+    @Override
+    public void setInverted(boolean invert) {
+        // keep the sensor reading continuous
+        double pos = sensorPosition_nu();
+
+        inverted = invert;
+
+        setPosition_nu(pos);
+    }
+
+    @Override
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    @Override
+    public void setSensorPhase(boolean phase) {
+        double pos = sensorPosition_nu();
+
+        sensorPhase = phase;
+
+        setPosition_nu(pos);
+    }
+
+
+
+    @Override
+    public void setOpenLoopRampRate(double fullThrottleSec) {
+        openLoopRamp = Math.max(0, fullThrottleSec);
+    }
+
+    @Override
+    public void setClosedLoopRampRate(double fullThrottleSec) {
+        closedLoopRamp = Math.max(0, fullThrottleSec);
+    }
+}
@@ -4,6 +4,9 @@ package frc.robot.utils.control.motor;
 
 import frc.robot.utils.control.controltype.ControlType;
 import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.status.CANDeviceType;
+import frc.robot.utils.control.motor.status.StatusFrame;
+import frc.robot.utils.control.motor.status.StatusSignal;
 import frc.robot.utils.control.pidf.PID;
 import frc.robot.utils.control.pidf.PIDF;
 
@@ -15,6 +18,7 @@ import com.revrobotics.CANPIDController;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.EncoderType;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
 
 import edu.wpi.first.wpilibj.RobotController;
 
@@ -30,6 +34,8 @@ public class BBSparkMax extends BBMotorController {
     private CANEncoder encoder;
 
     private int slotInUse = 0;
+    /** the Spark ignores setInverted() while following, so follow() needs this */
+    private boolean inverted = false;
 
 
 
@@ -135,7 +141,7 @@ public class BBSparkMax extends BBMotorController {
     }
 
     @Override
-    public double getPosition_nu() {
+    protected double readPosition_nu() {
         // SparkMax returns position in revs
         return encoder.getPosition();
     }
@@ -159,30 +165,84 @@ public class BBSparkMax extends BBMotorController {
 
 
     @Override
-    public double getVelocity_nu() {
+    protected double readVelocity_nu() {
         return encoder.getVelocity(); // I'm somebody
     }
 
 
 
     @Override
-    public double getVoltage() {
+    protected double readVoltage() {
         return MOTOR.getBusVoltage();
     }
 
     @Override
-    public double getPercentVoltage() {
-        return getVoltage() / RobotController.getBatteryVoltage();
+    protected double readPercentVoltage() {
+        return readVoltage() / RobotController.getBatteryVoltage();
     }
 
 
 
+    @Override
+    public StatusFrame getStatusFrame(StatusSignal signal) {
+        switch (signal) {
+            case Position: {
+                return StatusFrame.Position;
+            }
+            case Velocity:
+            case Voltage:
+            case PercentVoltage:
+            case Current: {
+                return StatusFrame.Feedback;
+            }
+            default: {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    protected CANDeviceType getCANDeviceType() {
+        return CANDeviceType.SparkMax;
+    }
+
+    @Override
+    protected void setStatusFramePeriod_native(StatusFrame frame, int period_ms) {
+        switch (frame) {
+            case General: {
+                MOTOR.setPeriodicFramePeriod(PeriodicFrame.kStatus0, period_ms);
+                break;
+            }
+            case Feedback: {
+                MOTOR.setPeriodicFramePeriod(PeriodicFrame.kStatus1, period_ms);
+                break;
+            }
+            case Position: {
+                MOTOR.setPeriodicFramePeriod(PeriodicFrame.kStatus2, period_ms);
+                break;
+            }
+            default: {
+                break; // Spark doesn't have it
+            }
+        }
+    }
+
+
+
+    @Override
+    public boolean canFollow(BBMotorController motorController) {
+        return motorController instanceof BBSparkMax;
+    }
+
     @Override
     public void follow(BBMotorController motorController) {
-        if (motorController instanceof BBSparkMax) {
+        if (canFollow(motorController)) {
             CANSparkMax leader = ((BBSparkMax) motorController).getSparkMax();
 
-            MOTOR.follow(leader);
+            MOTOR.follow(leader, inverted);
+
+            // following replaces whatever was last commanded
+            invalidateLastCommand();
         }
     }
 
@@ -190,7 +250,20 @@ public class BBSparkMax extends BBMotorController {
 
     @Override
     public void setInverted(boolean invert) {
-        setInverted(invert);
+        inverted = invert;
+
+        MOTOR.setInverted(invert);
+    }
+
+    @Override
+    public boolean isInverted() {
+        return inverted;
+    }
+
+    /** the Spark follows with its own inversion relative to the leader's */
+    @Override
+    protected boolean isFollowerInversionRelative() {
+        return true;
     }
 
     @Override
@@ -213,7 +286,7 @@ public class BBSparkMax extends BBMotorController {
     }
 
     @Override
-    public double getCurrent() {
+    protected double readCurrent() {
         return MOTOR.getOutputCurrent();
     }
 
@@ -1,8 +1,163 @@
 package frc.robot.utils.control.motor;
 
-// yeehaw
+import com.ctre.phoenix.motorcontrol.VelocityMeasPeriod;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+
+import frc.robot.utils.control.encoder.SensorType;
+import frc.robot.utils.control.motor.status.CANDeviceType;
+
+import frc.robot.utils.math.units.BaseUnit;
+import frc.robot.utils.math.units.Units;
+
+
+
+/**
+ * Wrapper class for Falcon 500s (TalonFX). Mostly a Talon SRX with a motor attached:
+ * - position/velocity always come from the integrated sensor (2048 ticks/rev)
+ * - all 4 gain slots are used
+ * - motion magic is per slot (the firmware only has one cruise velocity/acceleration,
+ *   so each slot's is remembered and written when the slot gets selected)
+ * - velocity measurement window and supply current limiting can be set
+ *
+ * NOTE: we're on Phoenix 5.16, which came out before the Falcon, so this still goes
+ * through the Talon SRX API. When we move to a Phoenix with TalonFX support, the
+ * WPI_TalonSRX becomes a WPI_TalonFX, the sensor gets selected as IntegratedSensor and
+ * current limiting uses SupplyCurrentLimitConfiguration. Nothing else changes.
+ */
 public class BBTalonFX extends BBTalonSRX {
+    /** ticks per revolution of the integrated sensor */
+    public static final int TICKS_PER_REV = 2048;
+
+    private static final SensorType INTEGRATED_SENSOR = new SensorType(TICKS_PER_REV);
+    private static final BaseUnit TICK = new BaseUnit(Units.REV, TICKS_PER_REV, "tick");
+
+    private static final int SLOTS = 4;
+
+
+
     public BBTalonFX(int deviceID) {
         super(deviceID);
+
+        super.addEncoder(INTEGRATED_SENSOR);
+    }
+
+
+
+    /** Falcons always use their integrated sensor, so this does nothing */
+    @Override
+    public void addEncoder(SensorType sensor) {}
+
+    @Override
+    protected BaseUnit getThetaUnit_nu() {
+        return TICK;
+    }
+
+    @Override
+    protected int getMaxMotionSlots() { return SLOTS; }
+
+    @Override
+    protected CANDeviceType getCANDeviceType() {
+        return CANDeviceType.TalonFX;
+    }
+
+
+
+    /*
+     * Per slot motion magic. The firmware has one cruise velocity/acceleration for
+     * every slot, so each slot's is kept here and written (without waiting for the
+     * Talon to confirm, so it doesn't block) whenever a slot with different motion
+     * magic gets selected. Loads can come from a ConfigWriter's thread, hence the
+     * locking.
+     */
+    private final int[] CRUISE_VEL = new int[SLOTS];
+    private final int[] ACC = new int[SLOTS];
+    /** whether a slot has motion magic */
+    private final boolean[] HAS_MOTION_MAGIC = new boolean[SLOTS];
+
+    private int activeSlot = 0;
+    /** motion magic in the firmware right now, -1 if unknown */
+    private int loadedCruiseVel = -1;
+    private int loadedAcc = -1;
+
+    @Override
+    protected synchronized void loadMotionMagic(double acc, double vel, int slot) {
+        CRUISE_VEL[slot] = (int) Math.round(vel);
+        ACC[slot] = (int) Math.round(acc);
+        HAS_MOTION_MAGIC[slot] = true;
+
+        if (slot == activeSlot) {
+            writeMotionMagic(slot, 10);
+        }
+    }
+
+    @Override
+    protected synchronized void clearMotionMagic(int slot) {
+        HAS_MOTION_MAGIC[slot] = false;
+    }
+
+    @Override
+    public synchronized void selectMotionConfigSlot(int slot) {
+        super.selectMotionConfigSlot(slot);
+
+        activeSlot = slot;
+
+        if (HAS_MOTION_MAGIC[slot] && writeMotionMagic(slot, 0)) {
+            getCANTraffic().countConfig(2);
+        }
+    }
+
+    /** Write a slot's motion magic, returns false if it was already there */
+    private boolean writeMotionMagic(int slot, int timeoutMs) {
+        if (CRUISE_VEL[slot] == loadedCruiseVel && ACC[slot] == loadedAcc) {
+            return false;
+        }
+
+        WPI_TalonSRX motor = getTalonSRX();
+        motor.configMotionCruiseVelocity(CRUISE_VEL[slot], timeoutMs);
+        motor.configMotionAcceleration(ACC[slot], timeoutMs);
+
+        loadedCruiseVel = CRUISE_VEL[slot];
+        loadedAcc = ACC[slot];
+
+        return true;
+    }
+
+
+
+    /**
+     * Set how velocity is measured: the change in position over the period, averaged
+     * over the last window measurements (taken every 1 ms). Shorter is more responsive,
+     * longer is smoother.
+     *
+     * @param period period to measure over
+     * @param window number of measurements to average (1 to 64, rounded down to a power of 2 by the Talon)
+     */
+    public void setVelocityMeasurement(VelocityMeasPeriod period, int window) {
+        WPI_TalonSRX motor = getTalonSRX();
+
+        motor.configVelocityMeasurementPeriod(period);
+        motor.configVelocityMeasurementWindow(Math.max(1, Math.min(64, window)));
+
+        getCANTraffic().countConfig(2);
+    }
+
+    /**
+     * Limit the current drawn from the battery: once it's been over the threshold for
+     * the threshold time, it gets held at the limit
+     *
+     * @param enable whether to limit the current at all
+     * @param limit current to hold at in amps (A)
+     * @param threshold current that trips the limit in amps (A)
+     * @param thresholdTime seconds the current has to be over the threshold
+     */
+    public void setSupplyCurrentLimit(boolean enable, double limit, double threshold, double thresholdTime) {
+        WPI_TalonSRX motor = getTalonSRX();
+
+        motor.configContinuousCurrentLimit((int) Math.round(limit));
+        motor.configPeakCurrentLimit((int) Math.round(Math.max(limit, threshold)));
+        motor.configPeakCurrentDuration((int) Math.round(thresholdTime * 1000));
+        motor.enableCurrentLimit(enable);
+
+        getCANTraffic().countConfig(4);
     }
-}
\ No newline at end of file
+}
@@ -8,6 +8,9 @@ import frc.robot.utils.control.controltype.ControlType;
 import frc.robot.utils.control.pidf.PID;
 import frc.robot.utils.control.pidf.PIDF;
 import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.status.CANDeviceType;
+import frc.robot.utils.control.motor.status.StatusFrame;
+import frc.robot.utils.control.motor.status.StatusSignal;
 
 import frc.robot.utils.math.units.Units;
 import frc.robot.utils.math.units.BaseUnit;
@@ -20,6 +23,8 @@ import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 public class BBTalonSRX extends BBMotorController {
     private final WPI_TalonSRX MOTOR;
 
+    private boolean inverted = false;
+
 
 
     public BBTalonSRX(int deviceID) {
@@ -42,7 +47,7 @@ public class BBTalonSRX extends BBMotorController {
     protected void loadPIDF(PIDF constants, int slot) {
         loadPID(constants, slot);
 
-        MOTOR.config_kF(slot, constants.getKD());
+        MOTOR.config_kF(slot, constants.getKF());
     }
 
     @Override
@@ -57,6 +62,9 @@ public class BBTalonSRX extends BBMotorController {
     @Override
     protected int getMaxMotionSlots() { return 2; }
 
+    @Override
+    protected double getFullOutput_nu() { return 1023; }
+
 
 
     
@@ -120,11 +128,11 @@ public class BBTalonSRX extends BBMotorController {
     protected void addQuadratureEncoder(QuadratureEncoder sensor) {
         MOTOR.configSelectedFeedbackSensor(FeedbackDevice.QuadEncoder);
         MOTOR.setSelectedSensorPosition(0);
-        MOTOR.setStatusFramePeriod(StatusFrameEnhanced.Status_3_Quadrature, 100);
+        setStatusFramePeriod(StatusFrame.Quadrature, 100);
     }
 
     @Override
-    public double getPosition_nu() {
+    protected double readPosition_nu() {
         return MOTOR.getSelectedSensorPosition();
     }
 
@@ -152,31 +160,96 @@ public class BBTalonSRX extends BBMotorController {
 
 
     @Override
-    public double getVelocity_nu() {
+    protected double readVelocity_nu() {
         return MOTOR.getSelectedSensorVelocity(); // thank you CTRE for not using revs per min unlike SOMEBODY
     }
 
 
 
     @Override
-    public double getVoltage() {
+    protected double readVoltage() {
         return MOTOR.getMotorOutputVoltage();
     }
 
     @Override
-    public double getPercentVoltage() {
+    protected double readPercentVoltage() {
         // TODO: verify this = getVoltage() / RobotController.getBatteryVoltage()
         return MOTOR.getMotorOutputPercent();
     }
 
 
 
+    @Override
+    public StatusFrame getStatusFrame(StatusSignal signal) {
+        switch (signal) {
+            case Position:
+            case Velocity:
+            case Current: {
+                return StatusFrame.Feedback;
+            }
+            case Voltage:
+            case PercentVoltage: {
+                return StatusFrame.General;
+            }
+            default: {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    protected CANDeviceType getCANDeviceType() {
+        return CANDeviceType.TalonSRX;
+    }
+
+    @Override
+    protected void setStatusFramePeriod_native(StatusFrame frame, int period_ms) {
+        StatusFrameEnhanced talonFrame = toTalonFrame(frame);
+
+        if (talonFrame != null) {
+            MOTOR.setStatusFramePeriod(talonFrame, period_ms);
+        }
+    }
+
+    private static StatusFrameEnhanced toTalonFrame(StatusFrame frame) {
+        switch (frame) {
+            case General: {
+                return StatusFrameEnhanced.Status_1_General;
+            }
+            case Feedback: {
+                return StatusFrameEnhanced.Status_2_Feedback0;
+            }
+            case Quadrature: {
+                return StatusFrameEnhanced.Status_3_Quadrature;
+            }
+            case PulseWidth: {
+                return StatusFrameEnhanced.Status_8_PulseWidth;
+            }
+            case Battery: {
+                return StatusFrameEnhanced.Status_4_AinTempVbat;
+            }
+            default: {
+                return null; // no position only frame
+            }
+        }
+    }
+
+
+
+    @Override
+    public boolean canFollow(BBMotorController motorController) {
+        return motorController instanceof BBTalonSRX;
+    }
+
     @Override
     public void follow(BBMotorController motorController) {
-        if (motorController instanceof BBTalonSRX) {
+        if (canFollow(motorController)) {
             WPI_TalonSRX leader = ((BBTalonSRX) motorController).getTalonSRX();
 
             MOTOR.follow(leader);
+
+            // following replaces whatever was last commanded
+            invalidateLastCommand();
         }
     }
 
@@ -184,9 +257,16 @@ public class BBTalonSRX extends BBMotorController {
 
     @Override
     public void setInverted(boolean invert) {
+        inverted = invert;
+
         MOTOR.setInverted(invert);
     }
 
+    @Override
+    public boolean isInverted() {
+        return inverted;
+    }
+
     @Override
     public void setSensorPhase(boolean phase) {
         MOTOR.setSensorPhase(phase);
@@ -205,7 +285,7 @@ public class BBTalonSRX extends BBMotorController {
     }
 
     @Override
-    public double getCurrent() {
+    protected double readCurrent() {
         return MOTOR.getOutputCurrent();
     }
 
@@ -0,0 +1,213 @@
+package frc.robot.utils.control.motor;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+
+
+/**
+ * Applies motor controller config writes (PIDF gains, motion magic, etc) on a
+ * background thread. Config calls are blocking CAN frames that can each take
+ * several ms, which is way too long to wait on in a control loop.
+ *
+ * Writes are queued per device and the worker applies everything queued for one
+ * device back to back before moving on to the next one, in the order devices were
+ * first queued. Each write gets a future that completes once it's been applied
+ * (exceptionally if it threw anything, Errors included).
+ *
+ * BBMotorController.setConfigWriter() makes slot loads go through one of these.
+ */
+public class ConfigWriter {
+    /** A write waiting to be applied */
+    private static class Write {
+        private final Runnable ACTION;
+        private final CompletableFuture<Void> FUTURE = new CompletableFuture<Void>();
+
+        private Write(Runnable action) {
+            ACTION = action;
+        }
+    }
+
+
+
+    /** device -> writes waiting for it, in the order they were submitted */
+    private final LinkedHashMap<BBMotorController, ArrayList<Write>> PENDING =
+        new LinkedHashMap<BBMotorController, ArrayList<Write>>();
+
+    private Thread thread;
+    private boolean running = true;
+    /** whether the worker is in the middle of a batch */
+    private boolean busy = false;
+
+    private long writes = 0;
+    private long batches = 0;
+    private long failures = 0;
+
+
+
+    /**
+     * Queue a config write for a device
+     *
+     * @param device device the write is for
+     * @param write config calls to make (run on the writer's thread)
+     *
+     * @return future completed once the write has been applied
+     */
+    public synchronized CompletableFuture<Void> submit(BBMotorController device, Runnable write) {
+        Write w = new Write(write);
+
+        if (!running) {
+            w.FUTURE.completeExceptionally(new IllegalStateException("ConfigWriter has been shut down"));
+
+            return w.FUTURE;
+        }
+
+        ArrayList<Write> queue = PENDING.get(device);
+        if (queue == null) {
+            queue = new ArrayList<Write>();
+            PENDING.put(device, queue);
+        }
+        queue.add(w);
+
+        if (thread == null) {
+            thread = new Thread(this::run, "ConfigWriter");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        notifyAll();
+
+        return w.FUTURE;
+    }
+
+    /**
+     * Wait until everything queued so far has been applied
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        while (!PENDING.isEmpty() || busy) {
+            wait();
+        }
+    }
+
+    /**
+     * Stop the writer once everything already queued has been applied. Anything
+     * submitted afterwards fails right away.
+     */
+    public void shutdown() {
+        Thread t;
+
+        synchronized (this) {
+            running = false;
+            t = thread;
+
+            notifyAll();
+        }
+
+        if (t == null) {
+            return;
+        }
+
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+
+
+    private void run() {
+        while (true) {
+            ArrayList<Write> batch;
+
+            synchronized (this) {
+                while (PENDING.isEmpty() && running) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        // keep going, only shutdown() stops the writer
+                    }
+                }
+
+                if (PENDING.isEmpty()) {
+                    // shut down and nothing left to do
+                    notifyAll();
+
+                    return;
+                }
+
+                // take everything for the device that's been waiting the longest
+                Iterator<Map.Entry<BBMotorController, ArrayList<Write>>> it = PENDING.entrySet().iterator();
+                batch = it.next().getValue();
+                it.remove();
+
+                busy = true;
+            }
+
+            Throwable[] errors = new Throwable[batch.size()];
+            int failed = 0;
+
+            try {
+                for (int i = 0; i < batch.size(); i++) {
+                    try {
+                        batch.get(i).ACTION.run();
+                    } catch (Throwable e) {
+                        // Errors too (like a vendor library blowing up), or whoever's
+                        // waiting on the write would wait forever
+                        errors[i] = e;
+                        failed++;
+                    }
+                }
+            } finally {
+                synchronized (this) {
+                    writes += batch.size();
+                    batches++;
+                    failures += failed;
+                }
+
+                // complete after the counts are updated so they're right for whoever's waiting
+                for (int i = 0; i < batch.size(); i++) {
+                    if (errors[i] == null) {
+                        batch.get(i).FUTURE.complete(null);
+                    } else {
+                        batch.get(i).FUTURE.completeExceptionally(errors[i]);
+                    }
+                }
+
+                // and only then let flush() return
+                synchronized (this) {
+                    busy = false;
+
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+
+
+    /** Get the number of writes waiting to be applied */
+    public synchronized int getPendingCount() {
+        int count = 0;
+
+        for (ArrayList<Write> queue : PENDING.values()) {
+            count += queue.size();
+        }
+
+        return count;
+    }
+
+    /** Get the number of writes applied (including failed ones) */
+    public synchronized long getWrites() { return writes; }
+
+    /** Get the number of per device batches applied */
+    public synchronized long getBatches() { return batches; }
+
+    /** Get the number of writes that threw */
+    public synchronized long getFailures() { return failures; }
+}
@@ -0,0 +1,162 @@
+package frc.robot.utils.control.motor;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.EnumMap;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+import frc.robot.utils.data.LatencyHistogram;
+
+
+
+/**
+ * Latency histograms for one motor controller, one per kind of operation. Every
+ * BBMotorController has one of these (getLatencyMonitor()) and records into it as it
+ * goes. Recording is lock free and doesn't allocate, so it's fine to leave on in matches.
+ */
+public class LatencyMonitor {
+    public static enum Operation {
+        /** from the cmd* call (unit conversion and slot selection included) to the vendor set() call returning */
+        Command,
+        /** writing a motion config (gains, motion magic) to a slot */
+        Config,
+        /** reading every sensor of the motor controller */
+        SensorRead,
+        /** how old the readings were when refreshSensors() took them */
+        SensorAge
+    }
+
+
+
+    private final EnumMap<Operation, LatencyHistogram> HISTOGRAMS =
+        new EnumMap<Operation, LatencyHistogram>(Operation.class);
+
+    private volatile boolean enabled = true;
+
+
+
+    LatencyMonitor() {
+        for (Operation op : Operation.values()) {
+            HISTOGRAMS.put(op, new LatencyHistogram());
+        }
+    }
+
+
+
+    /**
+     * Get a start time to record from later (0 if disabled)
+     */
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Record the time since start() for an operation
+     *
+     * @param op operation that was timed
+     * @param startNanos what start() returned (nothing's recorded for 0)
+     */
+    void recordSince(Operation op, long startNanos) {
+        if (startNanos != 0 && enabled) {
+            HISTOGRAMS.get(op).recordSince(startNanos);
+        }
+    }
+
+    /**
+     * Record a duration for an operation
+     *
+     * @param op operation
+     * @param nanos duration in nanoseconds
+     */
+    void record(Operation op, long nanos) {
+        if (enabled) {
+            HISTOGRAMS.get(op).record(nanos);
+        }
+    }
+
+
+
+    /** Turn recording on or off (on by default) */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    public LatencyHistogram getHistogram(Operation op) {
+        return HISTOGRAMS.get(op);
+    }
+
+    public void reset() {
+        for (LatencyHistogram histogram : HISTOGRAMS.values()) {
+            histogram.reset();
+        }
+    }
+
+
+
+    /**
+     * Put the mean, p50, p99 and max of every operation (in ms) on the dashboard
+     *
+     * @param name what to put the numbers under, like "Motor 3"
+     */
+    public void toDashboard(String name) {
+        for (Operation op : Operation.values()) {
+            LatencyHistogram histogram = HISTOGRAMS.get(op);
+            String key = name + "/" + op + " ";
+
+            SmartDashboard.putNumber(key + "mean (ms)", histogram.getMean() * 1000);
+            SmartDashboard.putNumber(key + "p50 (ms)", histogram.getPercentile(50) * 1000);
+            SmartDashboard.putNumber(key + "p99 (ms)", histogram.getPercentile(99) * 1000);
+            SmartDashboard.putNumber(key + "max (ms)", histogram.getMax() * 1000);
+        }
+    }
+
+    /**
+     * Write a summary of every operation plus its non empty buckets to a file
+     *
+     * @param file file to write (overwritten)
+     *
+     * @return false if it couldn't be written
+     */
+    public boolean writeTo(File file) {
+        long[] counts = new long[LatencyHistogram.BUCKETS];
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            for (Operation op : Operation.values()) {
+                LatencyHistogram histogram = HISTOGRAMS.get(op);
+
+                writer.println(op + ": " + histogram);
+
+                histogram.getCounts(counts);
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] != 0) {
+                        writer.println("\t< " + LatencyHistogram.getBucketTop(i) * 1e6 + " us: " + counts[i]);
+                    }
+                }
+            }
+
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + e);
+
+            return false;
+        }
+    }
+
+
+
+    @Override
+    public String toString() {
+        String ret = "";
+
+        for (Operation op : Operation.values()) {
+            ret += op + ": " + HISTOGRAMS.get(op) + "\n";
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,52 @@
+package frc.robot.utils.control.motor;
+
+import frc.robot.utils.control.MotionConfig;
+
+
+
+/**
+ * A motion config added to a particular BBMotorController. Look one of these up once
+ * (by ID, name or control type) while setting up, then command with it: it knows
+ * which slot its config is loaded in, so there's no searching on every command.
+ */
+public class MotionConfigHandle {
+    private final BBMotorController OWNER;
+    private final int ID;
+    private final String NAME;
+    private final MotionConfig CONFIG;
+
+    /** slot the config is loaded in on the owner, -1 if not loaded */
+    int slot = -1;
+
+
+
+    MotionConfigHandle(BBMotorController owner, int id, String name, MotionConfig config) {
+        OWNER = owner;
+        ID = id;
+        NAME = name;
+        CONFIG = config;
+    }
+
+
+
+    /** Get the motor controller this config was added to */
+    public BBMotorController getOwner() { return OWNER; }
+
+    /** Get the ID of the config (as returned by addMotionConfiguration) */
+    public int getID() { return ID; }
+
+    public String getName() { return NAME; }
+    public MotionConfig getConfig() { return CONFIG; }
+
+    /** Get the slot the config is loaded in, -1 if it isn't */
+    public int getSlot() { return slot; }
+
+    public boolean isLoaded() { return slot != -1; }
+
+
+
+    @Override
+    public String toString() {
+        return "MotionConfigHandle[" + NAME + " (" + ID + "), slot: " + slot + "]";
+    }
+}
@@ -0,0 +1,226 @@
+package frc.robot.utils.control.motor;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.invoke.VarHandle;
+
+import frc.robot.utils.control.MotorInfo;
+
+
+
+/**
+ * Ring buffer of the last however many sensor readings of a motor, for figuring out
+ * what happened after the fact (like after a brownout). Every BBMotorController fills
+ * one of these from refreshSensors().
+ *
+ * Each reading is split across one primitive array per value (timestamp, position,
+ * velocity, ...), all made up front, so adding is a handful of array writes and never
+ * allocates. Old readings get overwritten once it's full.
+ *
+ * Only one thread can add (whichever refreshes the motor), but any thread can take a
+ * consistent copy with copyTo() while it's being added to. Readings that got
+ * overwritten while they were being copied are just left out of the copy.
+ */
+public class MotorDiagnostics {
+    private final int CAPACITY;
+
+    private final long[] TIMESTAMPS;
+    private final double[] POSITIONS;
+    private final double[] VELOCITIES;
+    private final double[] CURRENTS;
+    private final double[] VOLTAGES;
+    private final double[] PERCENT_VOLTAGES;
+
+    /** number of readings ever added, only changes after a reading is fully written */
+    private volatile long added = 0;
+
+
+
+    /**
+     * @param capacity number of readings to keep
+     */
+    public MotorDiagnostics(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity has to be positive, not " + capacity);
+        }
+
+        CAPACITY = capacity;
+
+        TIMESTAMPS = new long[capacity];
+        POSITIONS = new double[capacity];
+        VELOCITIES = new double[capacity];
+        CURRENTS = new double[capacity];
+        VOLTAGES = new double[capacity];
+        PERCENT_VOLTAGES = new double[capacity];
+    }
+
+
+
+    /**
+     * Add a reading (only from one thread)
+     *
+     * @param snapshot reading to add
+     */
+    public void add(SensorSnapshot snapshot) {
+        add(
+            snapshot.getTimestamp(),
+            snapshot.getPosition_nu(), snapshot.getVelocity_nu(),
+            snapshot.getCurrent(), snapshot.getVoltage(), snapshot.getPercentVoltage()
+        );
+    }
+
+    /**
+     * Add a reading (only from one thread)
+     *
+     * @param timestamp when it was read, from System.nanoTime()
+     */
+    public void add(long timestamp, double position_nu, double velocity_nu, double current, double voltage, double percentVoltage) {
+        // volatile read, so the writes below can't move before the last reading was
+        // published (copyTo() counts on that to tell what's been overwritten)
+        long n = added;
+        int i = (int) (n % CAPACITY);
+
+        TIMESTAMPS[i] = timestamp;
+        POSITIONS[i] = position_nu;
+        VELOCITIES[i] = velocity_nu;
+        CURRENTS[i] = current;
+        VOLTAGES[i] = voltage;
+        PERCENT_VOLTAGES[i] = percentVoltage;
+
+        // publish it
+        added = n + 1;
+    }
+
+    /** Forget every reading (only from the thread that adds) */
+    public void clear() {
+        added = 0;
+    }
+
+
+
+    /**
+     * Copy the readings into another buffer, oldest first. Safe to call from any thread.
+     *
+     * @param copy buffer to copy into (anything already in it is replaced); if it's
+     * smaller than this one, just the newest readings are copied
+     *
+     * @return number of readings copied
+     */
+    public int copyTo(MotorDiagnostics copy) {
+        long end = added;
+        long start = Math.max(0, end - Math.min(CAPACITY, copy.CAPACITY));
+
+        for (long n = start; n < end; n++) {
+            int from = (int) (n % CAPACITY);
+            int to = (int) ((n - start) % copy.CAPACITY);
+
+            copy.TIMESTAMPS[to] = TIMESTAMPS[from];
+            copy.POSITIONS[to] = POSITIONS[from];
+            copy.VELOCITIES[to] = VELOCITIES[from];
+            copy.CURRENTS[to] = CURRENTS[from];
+            copy.VOLTAGES[to] = VOLTAGES[from];
+            copy.PERCENT_VOLTAGES[to] = PERCENT_VOLTAGES[from];
+        }
+
+        // keeps the reads above from moving after the re-read of added, otherwise
+        // they could see a reading that was overwritten after added was re-read
+        VarHandle.acquireFence();
+
+        // reading n gets overwritten once reading n + CAPACITY starts being written
+        long firstIntact = Math.max(start, added - CAPACITY + 1);
+        int skipped = (int) Math.min(end - start, Math.max(0, firstIntact - start));
+        int copied = (int) (end - start) - skipped;
+
+        if (skipped > 0) {
+            // shift the intact ones down to the start
+            for (int i = 0; i < copied; i++) {
+                int from = i + skipped;
+
+                copy.TIMESTAMPS[i] = copy.TIMESTAMPS[from];
+                copy.POSITIONS[i] = copy.POSITIONS[from];
+                copy.VELOCITIES[i] = copy.VELOCITIES[from];
+                copy.CURRENTS[i] = copy.CURRENTS[from];
+                copy.VOLTAGES[i] = copy.VOLTAGES[from];
+                copy.PERCENT_VOLTAGES[i] = copy.PERCENT_VOLTAGES[from];
+            }
+        }
+
+        copy.added = copied;
+
+        return copied;
+    }
+
+
+
+    /** Get the number of readings in the buffer */
+    public int size() {
+        return (int) Math.min(added, CAPACITY);
+    }
+
+    public int getCapacity() { return CAPACITY; }
+
+    /** Get the number of readings ever added (including overwritten ones) */
+    public long getAdded() { return added; }
+
+    /** Get when the newest reading was taken, 0 if there aren't any */
+    public long getLastTimestamp() {
+        long n = added;
+
+        return (n == 0) ? 0 : TIMESTAMPS[(int) ((n - 1) % CAPACITY)];
+    }
+
+    /**
+     * Get a reading. Only use this on a buffer nothing is adding to (like a copy).
+     *
+     * @param i index of the reading, 0 is the oldest
+     * @param info where to put the reading
+     *
+     * @return false if there's no reading i
+     */
+    public boolean get(int i, MotorInfo info) {
+        long n = added;
+        int size = (int) Math.min(n, CAPACITY);
+
+        if (i < 0 || i >= size) {
+            return false;
+        }
+
+        int j = (int) ((n - size + i) % CAPACITY);
+        info.set(TIMESTAMPS[j], POSITIONS[j], VELOCITIES[j], CURRENTS[j], VOLTAGES[j], PERCENT_VOLTAGES[j]);
+
+        return true;
+    }
+
+
+
+    /**
+     * Write a copy of the readings as CSV. Copies first, so it's safe to call from any
+     * thread (just not a control loop, it allocates and does file IO).
+     *
+     * @param file file to write (overwritten)
+     *
+     * @return false if it couldn't be written
+     */
+    public boolean writeTo(File file) {
+        MotorDiagnostics copy = new MotorDiagnostics(CAPACITY);
+        copyTo(copy);
+
+        MotorInfo info = new MotorInfo();
+
+        try (PrintWriter writer = new PrintWriter(new FileWriter(file))) {
+            writer.println("timestamp,position_nu,velocity_nu,current,voltage,percentVoltage");
+
+            for (int i = 0; copy.get(i, info); i++) {
+                writer.println(info);
+            }
+
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error: " + e);
+
+            return false;
+        }
+    }
+}
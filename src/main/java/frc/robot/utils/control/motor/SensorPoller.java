@@ -0,0 +1,298 @@
+package frc.robot.utils.control.motor;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.StampedLock;
+
+
+
+/**
+ * Reads the sensors of a bunch of BBMotorControllers on its own thread so the robot
+ * loops never have to wait on JNI/CAN for a reading.
+ *
+ * Each registered motor gets a Channel with two SensorSnapshots: the poller fills the
+ * back one and then flips which one is the front, seqlock style. Readers copy the
+ * front one optimistically and check nothing was flipped while they were copying
+ * (retrying if it was), so reading never blocks the poller, the poller never blocks
+ * readers, and nothing allocates.
+ *
+ * Once a motor is registered, its refreshSensors() takes the latest readings from
+ * here instead of reading the motor controller itself. Other threads can get their
+ * own consistent copy with read(motor, snapshot).
+ */
+public class SensorPoller {
+    /** Default time between polls in seconds */
+    public static final double DEFAULT_PERIOD = 0.005;
+
+    /** optimistic reads to try before just waiting for the poller */
+    private static final int MAX_OPTIMISTIC_READS = 4;
+
+
+
+    /** Latest readings of one motor */
+    static class Channel {
+        private final BBMotorController MOTOR;
+
+        private final SensorSnapshot[] BUFFERS = { new SensorSnapshot(), new SensorSnapshot() };
+        private final StampedLock LOCK = new StampedLock();
+        /** index of the buffer readers should read */
+        private int front = 0;
+        /** whether anything has been published yet */
+        private boolean hasData = false;
+
+
+
+        private Channel(BBMotorController motor) {
+            MOTOR = motor;
+        }
+
+
+
+        /** Read the motor and publish the readings (only called by the poller) */
+        private void poll() {
+            int back = 1 - front;
+
+            // nobody reads the back buffer, so fill it without the lock
+            MOTOR.readSensors(BUFFERS[back]);
+
+            long stamp = LOCK.writeLock();
+            front = back;
+            hasData = true;
+            LOCK.unlockWrite(stamp);
+        }
+
+        /**
+         * Copy the latest readings
+         *
+         * @param snapshot snapshot to copy into
+         *
+         * @return false if nothing has been read yet
+         */
+        boolean read(SensorSnapshot snapshot) {
+            for (int i = 0; i < MAX_OPTIMISTIC_READS; i++) {
+                long stamp = LOCK.tryOptimisticRead();
+
+                if (stamp == 0) {
+                    // poller is flipping right now
+                    Thread.onSpinWait();
+                    continue;
+                }
+
+                boolean published = hasData;
+                snapshot.copyFrom(BUFFERS[front]);
+
+                if (LOCK.validate(stamp)) {
+                    return published;
+                }
+            }
+
+            // poller kept flipping under us, just wait for it (only for the flip, not the read)
+            long stamp = LOCK.readLock();
+            try {
+                snapshot.copyFrom(BUFFERS[front]);
+
+                return hasData;
+            } finally {
+                LOCK.unlockRead(stamp);
+            }
+        }
+    }
+
+
+
+
+
+    private final CopyOnWriteArrayList<Channel> CHANNELS = new CopyOnWriteArrayList<Channel>();
+    private final Object POLL_LOCK = new Object();
+
+    private volatile long periodNanos;
+    private volatile Thread thread;
+
+    private volatile long polls = 0;
+    private volatile long overruns = 0;
+    private volatile long lastPollNanos = 0;
+
+
+
+    public SensorPoller() {
+        this(DEFAULT_PERIOD);
+    }
+
+    /**
+     * Create a sensor poller (not started)
+     *
+     * @param period seconds between polls
+     */
+    public SensorPoller(double period) {
+        setPeriod(period);
+    }
+
+
+
+    /**
+     * Start reading a motor's sensors. Once registered, the motor's refreshSensors()
+     * copies from this poller. Does nothing if the motor's already registered with
+     * a poller.
+     *
+     * @param motor motor to read
+     */
+    public synchronized void register(BBMotorController motor) {
+        if (motor.sensorChannel != null) {
+            return;
+        }
+
+        Channel channel = new Channel(motor);
+
+        // read it right away so refreshSensors() never gets an empty snapshot
+        synchronized (POLL_LOCK) {
+            channel.poll();
+        }
+
+        CHANNELS.add(channel);
+        motor.sensorChannel = channel;
+    }
+
+    /**
+     * Stop reading a motor's sensors, it goes back to reading the motor controller
+     * itself in refreshSensors()
+     *
+     * @param motor motor to stop reading
+     */
+    public synchronized void unregister(BBMotorController motor) {
+        Channel channel = motor.sensorChannel;
+
+        if (channel != null && CHANNELS.remove(channel)) {
+            motor.sensorChannel = null;
+        }
+    }
+
+    /**
+     * Copy the latest readings of a motor. Safe to call from any thread.
+     *
+     * @param motor motor to get the readings of
+     * @param snapshot snapshot to copy into
+     *
+     * @return false if the motor isn't registered with a poller
+     */
+    public static boolean read(BBMotorController motor, SensorSnapshot snapshot) {
+        Channel channel = motor.sensorChannel;
+
+        if (channel == null) {
+            return false;
+        }
+
+        return channel.read(snapshot);
+    }
+
+
+
+    /**
+     * Read every registered motor once. The polling thread calls this every period,
+     * but it can also be called directly (without starting the thread) to poll at
+     * exactly known times, like in a simulation.
+     */
+    public void pollAll() {
+        // only one writer per channel at a time
+        synchronized (POLL_LOCK) {
+            long start = System.nanoTime();
+
+            for (Channel channel : CHANNELS) {
+                channel.poll();
+            }
+
+            lastPollNanos = System.nanoTime() - start;
+            polls++;
+        }
+    }
+
+    /** Start the polling thread (does nothing if already running) */
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+
+        thread = new Thread(this::run, "SensorPoller");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Stop the polling thread, waiting for the current poll to finish */
+    public void stop() {
+        Thread t;
+
+        synchronized (this) {
+            t = thread;
+            thread = null;
+        }
+
+        if (t == null) {
+            return;
+        }
+
+        LockSupport.unpark(t);
+
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return thread != null;
+    }
+
+    private void run() {
+        Thread self = Thread.currentThread();
+        long next = System.nanoTime();
+
+        while (thread == self) {
+            pollAll();
+
+            next += periodNanos;
+            long wait = next - System.nanoTime();
+
+            if (wait <= 0) {
+                // took longer than a period, don't try to catch up
+                overruns++;
+                next = System.nanoTime();
+
+                continue;
+            }
+
+            // park can wake up early, so keep going until it's actually time
+            while (wait > 0 && thread == self) {
+                LockSupport.parkNanos(this, wait);
+
+                wait = next - System.nanoTime();
+            }
+        }
+    }
+
+
+
+    /**
+     * Set the time between polls
+     *
+     * @param period seconds between polls
+     */
+    public void setPeriod(double period) {
+        if (period > 0) {
+            periodNanos = (long) (period * 1e9);
+        }
+    }
+
+    public double getPeriod() { return periodNanos / 1e9; }
+
+    /** Get the number of motors being read */
+    public int getMotorCount() { return CHANNELS.size(); }
+
+    /** Get the number of times every motor has been read */
+    public long getPolls() { return polls; }
+
+    /** Get the number of polls that took longer than the period */
+    public long getOverruns() { return overruns; }
+
+    /** Get how long the last poll took in seconds */
+    public double getLastPollTime() { return lastPollNanos / 1e9; }
+}
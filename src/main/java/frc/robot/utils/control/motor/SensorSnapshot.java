@@ -0,0 +1,70 @@
+package frc.robot.utils.control.motor;
+
+
+
+/**
+ * Every sensor reading of a motor controller at one point in time, in native units.
+ * One of these lives in each BBMotorController and gets overwritten on every
+ * BBMotorController.refreshSensors(), so reading it never allocates.
+ */
+public class SensorSnapshot {
+    private long timestamp = 0;
+
+    private double position_nu = 0;
+    private double velocity_nu = 0;
+    private double voltage = 0;
+    private double percentVoltage = 0;
+    private double current = 0;
+
+
+
+    void set(long timestamp, double position_nu, double velocity_nu, double voltage, double percentVoltage, double current) {
+        this.timestamp = timestamp;
+        this.position_nu = position_nu;
+        this.velocity_nu = velocity_nu;
+        this.voltage = voltage;
+        this.percentVoltage = percentVoltage;
+        this.current = current;
+    }
+
+    void setPosition_nu(double position_nu) {
+        this.position_nu = position_nu;
+    }
+
+    /**
+     * Copy another snapshot into this one
+     *
+     * @param snapshot snapshot to copy
+     */
+    public void copyFrom(SensorSnapshot snapshot) {
+        set(
+            snapshot.timestamp,
+            snapshot.position_nu, snapshot.velocity_nu,
+            snapshot.voltage, snapshot.percentVoltage, snapshot.current
+        );
+    }
+
+
+
+    /** Get when the readings were taken, from System.nanoTime() (0 if never) */
+    public long getTimestamp() { return timestamp; }
+
+    /** Get how long ago the readings were taken in seconds */
+    public double getAge() {
+        return (System.nanoTime() - timestamp) / 1e9;
+    }
+
+    public double getPosition_nu() { return position_nu; }
+    public double getVelocity_nu() { return velocity_nu; }
+    public double getVoltage() { return voltage; }
+    public double getPercentVoltage() { return percentVoltage; }
+    public double getCurrent() { return current; }
+
+
+
+    @Override
+    public String toString() {
+        return "SensorSnapshot[t: " + timestamp + ", pos: " + position_nu + ", vel: " + velocity_nu
+            + ", V: " + voltage + ", %V: " + percentVoltage + ", I: " + current + "]";
+    }
+}
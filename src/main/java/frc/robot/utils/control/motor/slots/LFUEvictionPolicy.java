@@ -0,0 +1,86 @@
+package frc.robot.utils.control.motor.slots;
+
+
+
+/**
+ * Overwrite the slot that's been used the least. With a half life, old uses count
+ * for less and less (each use is worth half as much after every half life), so a
+ * config that was used a ton early on doesn't keep its slot forever. Without one
+ * it's plain LFU over the time the config has been in the slot.
+ *
+ * Ties go to the highest slot.
+ */
+public class LFUEvictionPolicy implements SlotEvictionPolicy {
+    /** decay rate of uses per nanosecond, 0 for no aging */
+    private final double DECAY;
+
+    private double[] score = new double[0];
+    private long[] lastUpdate = new long[0];
+
+
+
+    /** Plain LFU, uses never age */
+    public LFUEvictionPolicy() {
+        DECAY = 0;
+    }
+
+    /**
+     * Aged LFU
+     *
+     * @param halfLife seconds after which a use counts for half as much
+     */
+    public LFUEvictionPolicy(double halfLife) {
+        DECAY = (halfLife > 0) ? Math.log(2) / (halfLife * 1e9) : 0;
+    }
+
+
+
+    @Override
+    public void init(int slots) {
+        score = new double[slots];
+        lastUpdate = new long[slots];
+    }
+
+    /** Get a slot's score decayed up to the given time */
+    private double getScore(int slot, long time) {
+        if (DECAY == 0) {
+            return score[slot];
+        }
+
+        return score[slot] * Math.exp(-DECAY * (time - lastUpdate[slot]));
+    }
+
+    @Override
+    public void onLoad(int slot, int configID, long time) {
+        // new config, count starts over
+        score[slot] = 1;
+        lastUpdate[slot] = time;
+    }
+
+    @Override
+    public void onUse(int slot, long time) {
+        score[slot] = getScore(slot, time) + 1;
+        lastUpdate[slot] = time;
+    }
+
+    @Override
+    public int chooseSlot(int[] loadedConfigs, boolean[] evictable, long time) {
+        int slot = -1;
+        double minScore = Double.POSITIVE_INFINITY;
+
+        for (int i = score.length - 1; i >= 0; i--) {
+            if (!evictable[i]) {
+                continue;
+            }
+
+            double s = getScore(i, time);
+
+            if (s < minScore) {
+                minScore = s;
+                slot = i;
+            }
+        }
+
+        return slot;
+    }
+}
@@ -0,0 +1,42 @@
+package frc.robot.utils.control.motor.slots;
+
+
+
+/**
+ * Overwrite the slot that was used longest ago
+ *
+ * Ties go to the highest slot.
+ */
+public class LRUEvictionPolicy implements SlotEvictionPolicy {
+    private long[] lastUse = new long[0];
+
+
+
+    @Override
+    public void init(int slots) {
+        lastUse = new long[slots];
+    }
+
+    @Override
+    public void onLoad(int slot, int configID, long time) {
+        lastUse[slot] = time;
+    }
+
+    @Override
+    public void onUse(int slot, long time) {
+        lastUse[slot] = time;
+    }
+
+    @Override
+    public int chooseSlot(int[] loadedConfigs, boolean[] evictable, long time) {
+        int slot = -1;
+
+        for (int i = lastUse.length - 1; i >= 0; i--) {
+            if (evictable[i] && (slot == -1 || lastUse[i] - lastUse[slot] < 0)) {
+                slot = i;
+            }
+        }
+
+        return slot;
+    }
+}
@@ -0,0 +1,73 @@
+package frc.robot.utils.control.motor.slots;
+
+
+
+/**
+ * Never overwrite the slots holding certain motion configs (say the drive velocity
+ * config that's used all match) and let another policy choose among the rest. If
+ * every slot that could be chosen is pinned, the pins are ignored.
+ */
+public class PinnedEvictionPolicy implements SlotEvictionPolicy {
+    private final SlotEvictionPolicy POLICY;
+    private final int[] PINNED;
+
+    private boolean[] unpinned = new boolean[0];
+
+
+
+    /**
+     * Create a pinned policy
+     *
+     * @param policy policy choosing among the slots that aren't pinned
+     * @param pinnedConfigIDs IDs of the motion configs to keep loaded
+     */
+    public PinnedEvictionPolicy(SlotEvictionPolicy policy, int... pinnedConfigIDs) {
+        POLICY = policy;
+        PINNED = pinnedConfigIDs.clone();
+    }
+
+
+
+    private boolean isPinned(int configID) {
+        for (int i = 0; i < PINNED.length; i++) {
+            if (PINNED[i] == configID) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public void init(int slots) {
+        POLICY.init(slots);
+
+        unpinned = new boolean[slots];
+    }
+
+    @Override
+    public void onLoad(int slot, int configID, long time) {
+        POLICY.onLoad(slot, configID, time);
+    }
+
+    @Override
+    public void onUse(int slot, long time) {
+        POLICY.onUse(slot, time);
+    }
+
+    @Override
+    public int chooseSlot(int[] loadedConfigs, boolean[] evictable, long time) {
+        boolean any = false;
+
+        for (int i = 0; i < unpinned.length; i++) {
+            unpinned[i] = evictable[i] && !isPinned(loadedConfigs[i]);
+            any |= unpinned[i];
+        }
+
+        if (!any) {
+            return POLICY.chooseSlot(loadedConfigs, evictable, time);
+        }
+
+        return POLICY.chooseSlot(loadedConfigs, unpinned, time);
+    }
+}
@@ -0,0 +1,50 @@
+package frc.robot.utils.control.motor.slots;
+
+
+
+/**
+ * Decides which hardware slot to overwrite when a motor controller has more motion
+ * configs than slots and needs to load one that isn't in any slot.
+ *
+ * A BBMotorController tells its policy every time a slot is loaded or selected, and
+ * asks it for a slot once every slot is taken. Policies keep per slot state, so each
+ * controller needs its own instance.
+ *
+ * Times are from System.nanoTime().
+ */
+public interface SlotEvictionPolicy {
+    /**
+     * Set up for a motor controller (clears anything remembered)
+     *
+     * @param slots number of hardware slots
+     */
+    public void init(int slots);
+
+    /**
+     * A motion config was loaded into a slot (it's about to be used too)
+     *
+     * @param slot slot loaded into
+     * @param configID ID of the motion config loaded
+     * @param time time of the load
+     */
+    public void onLoad(int slot, int configID, long time);
+
+    /**
+     * A slot was used (selected for a command)
+     *
+     * @param slot slot used
+     * @param time time of the use
+     */
+    public void onUse(int slot, long time);
+
+    /**
+     * Choose a slot to overwrite
+     *
+     * @param loadedConfigs ID of the motion config in each slot
+     * @param evictable which slots are allowed to be chosen
+     * @param time current time
+     *
+     * @return slot to overwrite, or -1 if none of the allowed slots will do
+     */
+    public int chooseSlot(int[] loadedConfigs, boolean[] evictable, long time);
+}
@@ -0,0 +1,105 @@
+package frc.robot.utils.control.motor.slots;
+
+
+
+/**
+ * Overwrite the slot used the least over the last however many seconds, so only
+ * the current working set of configs matters. Uses are counted in buckets
+ * (window / BUCKETS seconds each) so it doesn't need to remember every use.
+ *
+ * Ties go to the slot used longest ago.
+ */
+public class WindowedFrequencyEvictionPolicy implements SlotEvictionPolicy {
+    /** Number of buckets the window is split into */
+    public static final int BUCKETS = 8;
+
+
+
+    private final long BUCKET_NANOS;
+
+    /** uses in each bucket of each slot, [slot][bucket] */
+    private int[][] counts = new int[0][0];
+    /** which bucket number (time / BUCKET_NANOS) each bucket is counting right now */
+    private long[][] bucketNumbers = new long[0][0];
+    private long[] lastUse = new long[0];
+
+
+
+    /**
+     * Create a windowed frequency policy
+     *
+     * @param window seconds of uses to count
+     */
+    public WindowedFrequencyEvictionPolicy(double window) {
+        BUCKET_NANOS = Math.max(1, (long) (window * 1e9 / BUCKETS));
+    }
+
+
+
+    @Override
+    public void init(int slots) {
+        counts = new int[slots][BUCKETS];
+        bucketNumbers = new long[slots][BUCKETS];
+        lastUse = new long[slots];
+    }
+
+    @Override
+    public void onLoad(int slot, int configID, long time) {
+        // new config, forget the old one's uses
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[slot][i] = 0;
+        }
+
+        onUse(slot, time);
+    }
+
+    @Override
+    public void onUse(int slot, long time) {
+        long bucketNumber = Math.floorDiv(time, BUCKET_NANOS);
+        int bucket = (int) Math.floorMod(bucketNumber, (long) BUCKETS);
+
+        if (bucketNumbers[slot][bucket] != bucketNumber) {
+            // this bucket was counting an old stretch of time
+            bucketNumbers[slot][bucket] = bucketNumber;
+            counts[slot][bucket] = 0;
+        }
+
+        counts[slot][bucket]++;
+        lastUse[slot] = time;
+    }
+
+    /** Get the uses of a slot within the window */
+    private int getCount(int slot, long time) {
+        long bucketNumber = Math.floorDiv(time, BUCKET_NANOS);
+        int count = 0;
+
+        for (int i = 0; i < BUCKETS; i++) {
+            if (bucketNumber - bucketNumbers[slot][i] < BUCKETS) {
+                count += counts[slot][i];
+            }
+        }
+
+        return count;
+    }
+
+    @Override
+    public int chooseSlot(int[] loadedConfigs, boolean[] evictable, long time) {
+        int slot = -1;
+        int minCount = Integer.MAX_VALUE;
+
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (!evictable[i]) {
+                continue;
+            }
+
+            int count = getCount(i, time);
+
+            if (count < minCount || (count == minCount && slot != -1 && lastUse[i] - lastUse[slot] < 0)) {
+                minCount = count;
+                slot = i;
+            }
+        }
+
+        return slot;
+    }
+}
@@ -0,0 +1,216 @@
+package frc.robot.utils.control.motor.status;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+
+
+/**
+ * Estimates how much of the CAN bus a set of devices uses.
+ *
+ * The planned load is everything sent periodically (status frames at their set periods
+ * plus the vendor APIs resending commands). On the robot, add every BBMotorController's
+ * CANTraffic and sample() every so often to also count the config frames actually sent
+ * since the last sample. Commands only count for devices without a periodic control
+ * frame; a new setpoint just rides along in the next control frame, which the planned
+ * load already has.
+ *
+ * It can also run on a desktop from a config file, so a robot's frame periods can be
+ * checked before deploying (./gradlew canBudget). The file has one thing per line:
+ *     threshold 0.6               (flag loads over 60% of the bus)
+ *     TalonSRX leftFront          (add a device)
+ *     leftFront Feedback 5        (set a status frame period in ms)
+ * with # for comments.
+ */
+public class CANBusEstimator {
+    /** CAN bus bit rate (bits/s) */
+    public static final double BUS_BITRATE = 1e6;
+
+    /** above this the bus starts dropping/delaying frames */
+    public static final double DEFAULT_THRESHOLD = 0.7;
+
+
+
+    private final ArrayList<CANTraffic> DEVICES = new ArrayList<CANTraffic>();
+
+    private double threshold = DEFAULT_THRESHOLD;
+
+    private long lastSampleNanos = 0;
+    private long lastFrames = 0;
+    private double measuredUtilization = 0;
+
+
+
+    public void add(CANTraffic device) {
+        DEVICES.add(device);
+    }
+
+    public ArrayList<CANTraffic> getDevices() {
+        return DEVICES;
+    }
+
+
+
+    /** Get the fraction of the bus everything sent periodically uses */
+    public double getPlannedUtilization() {
+        double bits = 0;
+
+        for (CANTraffic device : DEVICES) {
+            bits += device.getPeriodicBitsPerSecond();
+        }
+
+        return bits / BUS_BITRATE;
+    }
+
+    /** Check whether the planned load is over the threshold */
+    public boolean isOverThreshold() {
+        return getPlannedUtilization() > threshold;
+    }
+
+    /**
+     * Update the measured utilization: the planned load plus the config frames (and
+     * commands to devices without a periodic control frame) counted since the last
+     * sample
+     *
+     * @return measured utilization (just the planned load on the first sample)
+     */
+    public double sample() {
+        long now = System.nanoTime();
+        long frames = 0;
+
+        for (CANTraffic device : DEVICES) {
+            frames += device.getConfigFrames();
+
+            // otherwise already in the planned load as the control frame
+            if (device.getType().getControlFramePeriod() <= 0) {
+                frames += device.getCommandFrames();
+            }
+        }
+
+        double counted = 0;
+        if (lastSampleNanos != 0 && now > lastSampleNanos) {
+            counted = (frames - lastFrames) * CANTraffic.FRAME_BITS / ((now - lastSampleNanos) / 1e9);
+        }
+
+        lastSampleNanos = now;
+        lastFrames = frames;
+
+        measuredUtilization = getPlannedUtilization() + counted / BUS_BITRATE;
+
+        return measuredUtilization;
+    }
+
+    /** Get the utilization from the last sample() */
+    public double getMeasuredUtilization() { return measuredUtilization; }
+
+    /**
+     * Set the utilization to flag
+     *
+     * @param threshold fraction of the bus from 0 to 1
+     */
+    public void setThreshold(double threshold) {
+        if (threshold > 0 && threshold <= 1) {
+            this.threshold = threshold;
+        }
+    }
+
+    public double getThreshold() { return threshold; }
+
+
+
+    /**
+     * Load devices from a config file (see the class comment for the format)
+     *
+     * @param reader config to read
+     *
+     * @throws IOException if reading fails
+     * @throws IllegalArgumentException if a line doesn't make sense
+     */
+    public void load(BufferedReader reader) throws IOException {
+        HashMap<String, CANTraffic> byName = new HashMap<String, CANTraffic>();
+        for (CANTraffic device : DEVICES) {
+            byName.put(device.getName(), device);
+        }
+
+        String line;
+        int lineNum = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+
+            int comment = line.indexOf('#');
+            if (comment != -1) {
+                line = line.substring(0, comment);
+            }
+
+            String[] words = line.trim().split("\\s+");
+            if (words[0].isEmpty()) {
+                continue;
+            }
+
+            try {
+                if (words.length == 2 && words[0].equals("threshold")) {
+                    setThreshold(Double.parseDouble(words[1]));
+                } else if (words.length == 2) {
+                    CANTraffic device = new CANTraffic(words[1], CANDeviceType.valueOf(words[0]));
+
+                    add(device);
+                    byName.put(words[1], device);
+                } else if (words.length == 3 && byName.containsKey(words[0])) {
+                    byName.get(words[0]).setStatusFramePeriod(StatusFrame.valueOf(words[1]), Integer.parseInt(words[2]));
+                } else {
+                    throw new IllegalArgumentException("don't know what to do with it");
+                }
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException and bad enum names end up here too
+                throw new IllegalArgumentException("Line " + lineNum + " (" + line.trim() + "): " + e.getMessage());
+            }
+        }
+    }
+
+
+
+    @Override
+    public String toString() {
+        String ret = "";
+
+        for (CANTraffic device : DEVICES) {
+            ret += "\t" + device + "\n";
+        }
+
+        ret += String.format(
+            "planned utilization: %.1f%% (threshold %.1f%%)%s",
+            getPlannedUtilization() * 100, threshold * 100, isOverThreshold() ? " OVER THRESHOLD" : ""
+        );
+
+        return ret;
+    }
+
+
+
+    /**
+     * Check a CAN config file on a desktop. Prints the estimate and exits with 1 if the
+     * planned load is over the threshold.
+     *
+     * @param args path of the config file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: CANBusEstimator <config file>");
+            System.exit(2);
+        }
+
+        CANBusEstimator estimator = new CANBusEstimator();
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(args[0]))) {
+            estimator.load(reader);
+        }
+
+        System.out.println(estimator);
+
+        System.exit(estimator.isOverThreshold() ? 1 : 0);
+    }
+}
@@ -0,0 +1,45 @@
+package frc.robot.utils.control.motor.status;
+
+
+
+/**
+ * Kinds of motor controller on the CAN bus and the frames they send out of the box,
+ * so bus load can be worked out without any hardware.
+ */
+public enum CANDeviceType {
+    //        control  General  Feedback  Position  Quadrature  PulseWidth  Battery
+    TalonSRX (10,      10,      20,       0,        160,        160,        160),
+    TalonFX  (10,      10,      20,       0,        0,          0,          160),
+    SparkMax (10,      10,      20,       50,       0,          0,          0);
+
+
+
+    private final int CONTROL_PERIOD;
+    /** default period of each StatusFrame (by ordinal) in ms, 0 if it isn't sent */
+    private final int[] DEFAULT_PERIODS;
+
+
+
+    private CANDeviceType(int controlPeriod, int... defaultPeriods) {
+        CONTROL_PERIOD = controlPeriod;
+        DEFAULT_PERIODS = defaultPeriods;
+    }
+
+
+
+    /** Get how often in ms the vendor API resends the last command (0 if it doesn't) */
+    public int getControlFramePeriod() {
+        return CONTROL_PERIOD;
+    }
+
+    /**
+     * Get the period a frame has out of the box
+     *
+     * @param frame frame
+     *
+     * @return period in ms, 0 if the device doesn't send the frame
+     */
+    public int getDefaultStatusFramePeriod(StatusFrame frame) {
+        return DEFAULT_PERIODS[frame.ordinal()];
+    }
+}
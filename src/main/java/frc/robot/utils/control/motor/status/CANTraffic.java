@@ -0,0 +1,142 @@
+package frc.robot.utils.control.motor.status;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+
+
+/**
+ * CAN traffic of one device: the status frame periods it's been set to, and a count of
+ * every command and config frame sent to it. Every BBMotorController keeps one of these
+ * up to date (getCANTraffic()), and they can also be made by hand to describe a robot
+ * that doesn't exist yet (see CANBusEstimator).
+ *
+ * Counting doesn't lock, so any thread can send frames.
+ */
+public class CANTraffic {
+    /** bits in a frame: extended ID with 8 data bytes, before bit stuffing */
+    public static final int FRAME_BITS = 128;
+
+
+
+    private final String NAME;
+    private final CANDeviceType TYPE;
+
+    /** period each StatusFrame (by ordinal) is set to in ms, -1 if it's still the default */
+    private final int[] PERIODS = new int[StatusFrame.values().length];
+
+    private final AtomicLong COMMAND_FRAMES = new AtomicLong();
+    private final AtomicLong CONFIG_FRAMES = new AtomicLong();
+
+
+
+    /**
+     * @param name what to call the device in reports
+     * @param type kind of device, for its default frame periods
+     */
+    public CANTraffic(String name, CANDeviceType type) {
+        NAME = name;
+        TYPE = type;
+
+        for (int i = 0; i < PERIODS.length; i++) {
+            PERIODS[i] = -1;
+        }
+    }
+
+
+
+    /** Count a command frame (a setpoint, slot select, ...) */
+    public void countCommand() {
+        COMMAND_FRAMES.incrementAndGet();
+    }
+
+    /**
+     * Count config frames
+     *
+     * @param frames number of config frames sent
+     */
+    public void countConfig(int frames) {
+        CONFIG_FRAMES.addAndGet(frames);
+    }
+
+    /**
+     * Record that a status frame was set to a new period (doesn't count the config
+     * frame it took to set it)
+     *
+     * @param frame frame
+     * @param period_ms period in ms
+     */
+    public void setStatusFramePeriod(StatusFrame frame, int period_ms) {
+        if (TYPE.getDefaultStatusFramePeriod(frame) == 0 || period_ms <= 0) {
+            return;
+        }
+
+        PERIODS[frame.ordinal()] = period_ms;
+    }
+
+    /**
+     * Get the period a status frame is set to
+     *
+     * @return period in ms, 0 if the device doesn't send the frame
+     */
+    public int getStatusFramePeriod(StatusFrame frame) {
+        int period = PERIODS[frame.ordinal()];
+
+        return (period == -1) ? TYPE.getDefaultStatusFramePeriod(frame) : period;
+    }
+
+
+
+    /**
+     * Get the bits/s of everything the device sends (or is sent) periodically: its
+     * status frames and the vendor API resending the last command
+     */
+    public double getPeriodicBitsPerSecond() {
+        double bits = 0;
+
+        for (StatusFrame frame : StatusFrame.values()) {
+            int period = getStatusFramePeriod(frame);
+
+            if (period > 0) {
+                bits += FRAME_BITS * 1000.0 / period;
+            }
+        }
+
+        int control = TYPE.getControlFramePeriod();
+        if (control > 0) {
+            bits += FRAME_BITS * 1000.0 / control;
+        }
+
+        return bits;
+    }
+
+    public String getName() { return NAME; }
+    public CANDeviceType getType() { return TYPE; }
+
+    /** Get the number of command frames sent so far */
+    public long getCommandFrames() { return COMMAND_FRAMES.get(); }
+
+    /** Get the number of config frames sent so far */
+    public long getConfigFrames() { return CONFIG_FRAMES.get(); }
+
+    public void resetCounts() {
+        COMMAND_FRAMES.set(0);
+        CONFIG_FRAMES.set(0);
+    }
+
+
+
+    @Override
+    public String toString() {
+        String ret = NAME + " (" + TYPE + "): " + String.format("%.1f", getPeriodicBitsPerSecond() / 1000) + " kbit/s periodic, status frames";
+
+        for (StatusFrame frame : StatusFrame.values()) {
+            int period = getStatusFramePeriod(frame);
+
+            if (period > 0) {
+                ret += " " + frame + " " + period + " ms";
+            }
+        }
+
+        return ret + ", " + getCommandFrames() + " commands, " + getConfigFrames() + " configs";
+    }
+}
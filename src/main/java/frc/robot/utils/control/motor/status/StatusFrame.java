@@ -0,0 +1,23 @@
+package frc.robot.utils.control.motor.status;
+
+
+
+/**
+ * Periodic status frames a motor controller sends, named by what's in them since every
+ * vendor numbers them differently. A motor controller doesn't have to have every one
+ * of these.
+ */
+public enum StatusFrame {
+    /** applied output and faults (Talon status 1, Spark MAX status 0) */
+    General,
+    /** selected sensor and current (Talon status 2), or velocity, voltage and current (Spark MAX status 1) */
+    Feedback,
+    /** sensor position by itself (Spark MAX status 2) */
+    Position,
+    /** raw quadrature encoder (Talon status 3) */
+    Quadrature,
+    /** raw pulse width encoder (Talon status 8) */
+    PulseWidth,
+    /** bus voltage and temperature (Talon status 4) */
+    Battery
+}
@@ -0,0 +1,323 @@
+package frc.robot.utils.control.motor.status;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+
+/**
+ * Decides how often every motor controller sends each of its status frames, based on
+ * what's actually being read. Whatever reads a motor registers which signals it reads
+ * and how fresh they need to be; each frame is then sent just often enough for the
+ * freshest signal in it.
+ *
+ * If that would use more of the CAN bus than the budget allows, every requested
+ * period is stretched by the same factor (so everyone gets equally staler) until it
+ * fits, up to every frame being sent at MAX_PERIOD; if even that doesn't fit the
+ * plan is over budget (see isOverBudget()). Frames nobody reads anymore go back to
+ * their default periods, which count against the budget too. Frames the manager was
+ * never asked about aren't touched or counted.
+ *
+ * Everything gets re-planned whenever something registers or unregisters, and only
+ * periods that changed are sent to the devices.
+ */
+public class StatusFrameManager {
+    /** fastest a frame can be sent in ms */
+    public static final int MIN_PERIOD = 1;
+    /** slowest a frame can be sent in ms */
+    public static final int MAX_PERIOD = 255;
+
+    public static final double DEFAULT_BUDGET = 0.5;
+
+
+
+    /** Signals something reads from one device and how fresh they need to be */
+    public class Request {
+        private final StatusFrameSink DEVICE;
+        private final StatusSignal[] SIGNALS;
+        /** longest period that keeps the signals fresh enough, in ms */
+        private final int PERIOD;
+
+        private Request(StatusFrameSink device, int period, StatusSignal[] signals) {
+            DEVICE = device;
+            PERIOD = period;
+            SIGNALS = signals.clone();
+        }
+
+        public StatusFrameSink getDevice() { return DEVICE; }
+
+        /** Check whether every signal is as fresh as requested with the current plan */
+        public boolean isSatisfied() {
+            synchronized (StatusFrameManager.this) {
+                for (StatusSignal signal : SIGNALS) {
+                    StatusFrame frame = DEVICE.getStatusFrame(signal);
+
+                    if (frame != null && getPeriod(DEVICE, frame) > PERIOD) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+        }
+    }
+
+    /** What the manager knows about one frame of one device */
+    private static class Frame {
+        /** period asked for in ms, 0 if nobody's asking */
+        private int requested = 0;
+        /** period the device was last set to in ms */
+        private int period = 0;
+        private int planned = 0;
+    }
+
+
+
+    private final ArrayList<Request> REQUESTS = new ArrayList<Request>();
+    /** device -> every frame the manager has been asked about */
+    private final LinkedHashMap<StatusFrameSink, EnumMap<StatusFrame, Frame>> DEVICES =
+        new LinkedHashMap<StatusFrameSink, EnumMap<StatusFrame, Frame>>();
+
+    private double budget;
+    /** bus utilization of the current plan */
+    private double utilization = 0;
+    /** how much the requested periods were stretched to fit the budget */
+    private double stretch = 1;
+    /** whether the plan uses more than the budget even stretched as far as it goes */
+    private boolean overBudget = false;
+    private long writes = 0;
+
+
+
+    public StatusFrameManager() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * @param budget fraction (0 to 1) of the CAN bus the managed frames can use
+     */
+    public StatusFrameManager(double budget) {
+        setBudget(budget);
+    }
+
+
+
+    /**
+     * Say some signals are being read from a device
+     *
+     * @param device device being read (a BBMotorController)
+     * @param freshness how old in seconds the signals can be at most
+     * @param signals signals being read
+     *
+     * @return the request, to unregister it later
+     */
+    public synchronized Request register(StatusFrameSink device, double freshness, StatusSignal... signals) {
+        int period = (int) Math.floor(freshness * 1000);
+        period = Math.max(MIN_PERIOD, Math.min(MAX_PERIOD, period));
+
+        Request request = new Request(device, period, signals);
+        REQUESTS.add(request);
+
+        EnumMap<StatusFrame, Frame> frames = DEVICES.get(device);
+        if (frames == null) {
+            frames = new EnumMap<StatusFrame, Frame>(StatusFrame.class);
+            DEVICES.put(device, frames);
+        }
+
+        for (StatusSignal signal : signals) {
+            StatusFrame frame = device.getStatusFrame(signal);
+
+            if (frame != null && !frames.containsKey(frame)) {
+                Frame f = new Frame();
+                // whatever it's at now, not its default, so a plan that lands on the
+                // default still gets written if something else changed the period
+                f.period = device.getStatusFramePeriod(frame);
+
+                frames.put(frame, f);
+            }
+        }
+
+        replan();
+
+        return request;
+    }
+
+    /**
+     * Say some signals aren't being read anymore
+     *
+     * @param request request from register()
+     */
+    public synchronized void unregister(Request request) {
+        if (REQUESTS.remove(request)) {
+            replan();
+        }
+    }
+
+
+
+    /** Work out every period again and send the ones that changed */
+    private void replan() {
+        // what everyone's asking for
+        for (EnumMap<StatusFrame, Frame> frames : DEVICES.values()) {
+            for (Frame f : frames.values()) {
+                f.requested = 0;
+            }
+        }
+
+        for (Request request : REQUESTS) {
+            EnumMap<StatusFrame, Frame> frames = DEVICES.get(request.DEVICE);
+
+            for (StatusSignal signal : request.SIGNALS) {
+                Frame f = frames.get(request.DEVICE.getStatusFrame(signal));
+
+                if (f != null && (f.requested == 0 || request.PERIOD < f.requested)) {
+                    f.requested = request.PERIOD;
+                }
+            }
+        }
+
+        // frames nobody's reading are sent at their defaults no matter what
+        double available = budget * CANBusEstimator.BUS_BITRATE;
+        int shortest = MAX_PERIOD;
+
+        for (Map.Entry<StatusFrameSink, EnumMap<StatusFrame, Frame>> device : DEVICES.entrySet()) {
+            for (Map.Entry<StatusFrame, Frame> frame : device.getValue().entrySet()) {
+                Frame f = frame.getValue();
+
+                if (f.requested == 0) {
+                    int period = device.getKey().getDefaultStatusFramePeriod(frame.getKey());
+                    f.planned = period;
+
+                    if (period > 0) {
+                        available -= CANTraffic.FRAME_BITS * 1000.0 / period;
+                    }
+                } else {
+                    shortest = Math.min(shortest, f.requested);
+                }
+            }
+        }
+
+        // find the smallest stretch that fits (more stretch never uses more of the bus)
+        double lo = 1;
+        double hi = (double) MAX_PERIOD / shortest;
+
+        if (bitsPerSecond(lo) > available) {
+            for (int i = 0; i < 30; i++) {
+                double mid = (lo + hi) / 2;
+
+                if (bitsPerSecond(mid) > available) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+
+            stretch = hi;
+        } else {
+            stretch = 1;
+        }
+
+        // send whatever changed
+        double used = 0;
+
+        for (Map.Entry<StatusFrameSink, EnumMap<StatusFrame, Frame>> device : DEVICES.entrySet()) {
+            for (Map.Entry<StatusFrame, Frame> frame : device.getValue().entrySet()) {
+                Frame f = frame.getValue();
+
+                if (f.requested != 0) {
+                    f.planned = stretchedPeriod(f.requested, stretch);
+                }
+
+                if (f.planned > 0) {
+                    used += CANTraffic.FRAME_BITS * 1000.0 / f.planned;
+                }
+
+                if (f.planned != f.period && f.planned > 0) {
+                    device.getKey().setStatusFramePeriod(frame.getKey(), f.planned);
+
+                    f.period = f.planned;
+                    writes++;
+                }
+            }
+        }
+
+        utilization = used / CANBusEstimator.BUS_BITRATE;
+        overBudget = used > budget * CANBusEstimator.BUS_BITRATE;
+    }
+
+    /** Get the bits/s the requested frames would use with a stretch */
+    private double bitsPerSecond(double stretch) {
+        double bits = 0;
+
+        for (EnumMap<StatusFrame, Frame> frames : DEVICES.values()) {
+            for (Frame f : frames.values()) {
+                if (f.requested != 0) {
+                    bits += CANTraffic.FRAME_BITS * 1000.0 / stretchedPeriod(f.requested, stretch);
+                }
+            }
+        }
+
+        return bits;
+    }
+
+    private static int stretchedPeriod(int requested, double stretch) {
+        // tiny bit of slack so a stretch of exactly 1 doesn't round up
+        int period = (int) Math.ceil(requested * stretch - 1e-9);
+
+        return Math.max(MIN_PERIOD, Math.min(MAX_PERIOD, period));
+    }
+
+
+
+    /**
+     * Set how much of the CAN bus the managed frames can use
+     *
+     * @param budget fraction from 0 to 1
+     */
+    public synchronized void setBudget(double budget) {
+        if (budget <= 0 || budget > 1) {
+            return;
+        }
+
+        this.budget = budget;
+
+        replan();
+    }
+
+    public synchronized double getBudget() { return budget; }
+
+    /** Get the fraction of the CAN bus the managed frames use with the current plan */
+    public synchronized double getUtilization() { return utilization; }
+
+    /** Get how much the requested periods were stretched to fit in the budget (1 if not at all) */
+    public synchronized double getStretch() { return stretch; }
+
+    /**
+     * Check whether the plan uses more of the bus than the budget, which happens when
+     * even sending every requested frame at MAX_PERIOD (plus the defaults of frames
+     * nobody's reading) doesn't fit
+     */
+    public synchronized boolean isOverBudget() { return overBudget; }
+
+    /**
+     * Get the period a frame of a device is set to
+     *
+     * @return period in ms, 0 if the manager hasn't touched the frame
+     */
+    public synchronized int getPeriod(StatusFrameSink device, StatusFrame frame) {
+        EnumMap<StatusFrame, Frame> frames = DEVICES.get(device);
+
+        if (frames == null) {
+            return 0;
+        }
+
+        Frame f = frames.get(frame);
+
+        return (f == null) ? 0 : f.period;
+    }
+
+    /** Get the number of period changes sent to devices */
+    public synchronized long getWrites() { return writes; }
+}
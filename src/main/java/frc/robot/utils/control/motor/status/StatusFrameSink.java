@@ -0,0 +1,46 @@
+package frc.robot.utils.control.motor.status;
+
+
+
+/**
+ * Something whose status frame periods can be set, normally a BBMotorController.
+ * StatusFrameManager only talks to devices through this, so it can be pointed at
+ * something that just records what it's told.
+ */
+public interface StatusFrameSink {
+    /**
+     * Get the frame a signal comes in
+     *
+     * @param signal signal
+     *
+     * @return frame the signal comes in, null if the device doesn't report it
+     */
+    public StatusFrame getStatusFrame(StatusSignal signal);
+
+    /**
+     * Get the period a frame has out of the box
+     *
+     * @param frame frame
+     *
+     * @return period in ms, 0 if the device doesn't send the frame
+     */
+    public int getDefaultStatusFramePeriod(StatusFrame frame);
+
+    /**
+     * Get the period a frame is set to right now, which isn't the default if
+     * something else already changed it
+     *
+     * @param frame frame
+     *
+     * @return period in ms, 0 if the device doesn't send the frame
+     */
+    public int getStatusFramePeriod(StatusFrame frame);
+
+    /**
+     * Set how often a frame is sent
+     *
+     * @param frame frame
+     * @param period_ms period in ms
+     */
+    public void setStatusFramePeriod(StatusFrame frame, int period_ms);
+}
@@ -0,0 +1,15 @@
+package frc.robot.utils.control.motor.status;
+
+
+
+/**
+ * Something a motor controller reports back over CAN in a status frame. These are the
+ * readings in a SensorSnapshot.
+ */
+public enum StatusSignal {
+    Position,
+    Velocity,
+    Voltage,
+    PercentVoltage,
+    Current
+}
@@ -0,0 +1,109 @@
+package frc.robot.utils.control.pidf;
+
+
+
+/**
+ * How to turn PID gains in preferred units (volts of output per preferred unit of
+ * error, like V/rad or V/(ft/s)) into the gains a motor controller actually takes
+ * (native output per native unit of error, like 1023/tick on a Talon or duty
+ * cycle/rpm on a SparkMax).
+ *
+ * Every motor controller with the same units has equal GainScales, which is what
+ * PID.toNative caches converted gains by.
+ */
+public class GainScale {
+    /** Voltage full output is taken to be */
+    public static final double NOMINAL_VOLTAGE = 12;
+
+
+
+    private final double ERROR_SCALE;
+    private final double VELOCITY_SCALE;
+    private final double OUTPUT_SCALE;
+    private final double PERIOD;
+
+
+
+    /**
+     * Create a gain scale
+     *
+     * @param errorScale native units of error per preferred unit of error (position or velocity)
+     * @param velocityScale native velocity units per preferred velocity unit (for kF)
+     * @param fullOutput_nu native output at full output (1023 for Talons, 1 for SparkMaxes)
+     * @param period closed loop period of the motor controller in seconds
+     */
+    public GainScale(double errorScale, double velocityScale, double fullOutput_nu, double period) {
+        ERROR_SCALE = errorScale;
+        VELOCITY_SCALE = velocityScale;
+        OUTPUT_SCALE = fullOutput_nu / NOMINAL_VOLTAGE;
+        PERIOD = period;
+    }
+
+
+
+    /** native output per unit of (native) gain, divided out safely */
+    private double scale(double gain, double per) {
+        if (per == 0) {
+            // units aren't set up yet
+            return 0;
+        }
+
+        return gain * OUTPUT_SCALE / per;
+    }
+
+    /**
+     * Convert gains in preferred units into native units. The integral is summed
+     * and the derivative taken once per closed loop period, so kI is per (unit * s)
+     * and kD per (unit / s) in preferred units.
+     *
+     * @param pid gains in preferred units
+     *
+     * @return gains in native units (a PIDF if pid is one)
+     */
+    public PID convert(PID pid) {
+        double kP = scale(pid.getKP(), ERROR_SCALE);
+        double kI = scale(pid.getKI() * PERIOD, ERROR_SCALE);
+        double kD = scale(pid.getKD() / PERIOD, ERROR_SCALE);
+        double iZone = pid.getIZone() * ERROR_SCALE;
+
+        if (pid instanceof PIDF) {
+            double kF = scale(((PIDF) pid).getKF(), VELOCITY_SCALE);
+
+            return new PIDF(kP, kI, kD, kF, iZone);
+        }
+
+        return new PID(kP, kI, kD, iZone);
+    }
+
+
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GainScale)) {
+            return false;
+        }
+
+        GainScale scale = (GainScale) o;
+
+        return Double.compare(ERROR_SCALE, scale.ERROR_SCALE) == 0
+            && Double.compare(VELOCITY_SCALE, scale.VELOCITY_SCALE) == 0
+            && Double.compare(OUTPUT_SCALE, scale.OUTPUT_SCALE) == 0
+            && Double.compare(PERIOD, scale.PERIOD) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = Double.hashCode(ERROR_SCALE);
+        hash = 31 * hash + Double.hashCode(VELOCITY_SCALE);
+        hash = 31 * hash + Double.hashCode(OUTPUT_SCALE);
+        hash = 31 * hash + Double.hashCode(PERIOD);
+
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "GainScale[error: " + ERROR_SCALE + ", velocity: " + VELOCITY_SCALE
+            + ", output: " + OUTPUT_SCALE + ", period: " + PERIOD + "]";
+    }
+}
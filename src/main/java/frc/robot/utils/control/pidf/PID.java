@@ -1,5 +1,6 @@
 package frc.robot.utils.control.pidf;
 
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -18,6 +19,11 @@ public class PID {
 
     private int uses = 0;
 
+    /** whether the gains are in preferred units (see inPreferredUnits()) */
+    private boolean preferredUnits = false;
+    /** gains converted to native units, by gain scale */
+    private final ConcurrentHashMap<GainScale, PID> NATIVE_GAINS = new ConcurrentHashMap<GainScale, PID>();
+
     
 
     /**
@@ -61,4 +67,47 @@ public class PID {
     public int getUses() {
         return uses;
     }
-}
\ No newline at end of file
+
+
+
+    /**
+     * Say these gains are in preferred units instead of the motor controller's
+     * native units: volts per preferred unit of error (kI per unit * s, kD per
+     * unit / s, kF volts per preferred velocity unit). Each motor controller
+     * converts them to its own native units when loading them.
+     *
+     * @return this
+     */
+    public PID inPreferredUnits() {
+        preferredUnits = true;
+
+        return this;
+    }
+
+    public boolean isInPreferredUnits() {
+        return preferredUnits;
+    }
+
+    /**
+     * Get these gains in native units. Conversions are remembered, so every motor
+     * controller with the same units shares one.
+     *
+     * @param scale gain scale of the motor controller (null to not convert)
+     *
+     * @return gains in native units (this if they already are)
+     */
+    public PID toNative(GainScale scale) {
+        if (!preferredUnits || scale == null) {
+            return this;
+        }
+
+        PID converted = NATIVE_GAINS.get(scale);
+
+        if (converted == null) {
+            converted = scale.convert(this);
+            NATIVE_GAINS.put(scale, converted);
+        }
+
+        return converted;
+    }
+}
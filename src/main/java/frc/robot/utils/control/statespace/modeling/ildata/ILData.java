@@ -138,6 +138,9 @@ public class ILData {
     private class Loop implements Runnable {
         @Override
         public void run() {
+            // read the motor once per cycle
+            MOTOR.refreshSensors();
+
             if (state == State.Measurement) {
                 MOTOR.cmdPercent(PERCENT);
 
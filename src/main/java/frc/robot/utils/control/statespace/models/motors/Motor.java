@@ -34,7 +34,7 @@ public class Motor {
         this.C = C;
 
         this.b = new Quantity(b, Units.Nm.divide(Units.RAD_PER_S));
-        this.R = new Quantity(b, Units.Ohm);
+        this.R = new Quantity(R, Units.Ohm);
         K_T = new Quantity(Kt, Units.Nm.divide(Units.A));
         K_W = new Quantity(Kw, Units.V.divide(Units.RAD_PER_S));
     }
@@ -49,6 +49,15 @@ public class Motor {
 
 
 
+    /** Viscous friction, torque per angular velocity */
+    public Quantity getb() { return b; }
+    /** Winding resistance */
+    public Quantity getR() { return R; }
+    /** Torque constant, torque per current */
+    public Quantity getKT() { return K_T; }
+    /** Back EMF constant, voltage per angular velocity */
+    public Quantity getKW() { return K_W; }
+
     public DMatrixRMaj getA() { return A; }
     public DMatrixRMaj getB() { return B; }
     public DMatrixRMaj getC() { return C; }
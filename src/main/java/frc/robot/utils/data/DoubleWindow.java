@@ -0,0 +1,176 @@
+package frc.robot.utils.data;
+
+
+
+/**
+ * Window of the last however many doubles added, oldest first. Everything lives in one
+ * array made up front, so adding is O(1) and never allocates (no boxing either).
+ */
+public class DoubleWindow {
+    private final double[] DATA;
+    private final int LENGTH;
+
+    private int next = 0; // next index to replace
+    private int size = 0;
+
+
+
+    /**
+     * @param length number of values to keep
+     */
+    public DoubleWindow(int length) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length has to be positive, not " + length);
+        }
+
+        LENGTH = length;
+        DATA = new double[length];
+    }
+
+
+
+
+
+    public void reset() {
+        next = 0;
+        size = 0;
+    }
+
+
+
+    /**
+     * Add a value, replacing the oldest one if the window is full
+     *
+     * @param value value to add
+     */
+    public void add(double value) {
+        DATA[next] = value;
+
+        next++;
+        if (next == LENGTH) {
+            next = 0; // next value replaces the first one
+        }
+
+        if (size < LENGTH) {
+            size++;
+        }
+    }
+
+
+
+    // do we have enough data?
+    public boolean isFilled() {
+        return size == LENGTH;
+    }
+
+    /** Get the number of values in the window */
+    public int size() {
+        return size;
+    }
+
+    /** Get the number of values the window can hold */
+    public int getLength() {
+        return LENGTH;
+    }
+
+
+
+    /**
+     * Get a value
+     *
+     * @param i index of the value, 0 is the oldest and size() - 1 the newest
+     */
+    public double get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of " + size);
+        }
+
+        return DATA[index(i)];
+    }
+
+    /** Get the newest value (0 if there aren't any) */
+    public double getNewest() {
+        return (size == 0) ? 0 : DATA[index(size - 1)];
+    }
+
+    /** Get the oldest value (0 if there aren't any) */
+    public double getOldest() {
+        return (size == 0) ? 0 : DATA[index(0)];
+    }
+
+    private int index(int i) {
+        // oldest value is at next once the window's full, at 0 before that
+        int j = next - size + i;
+
+        return (j < 0) ? j + LENGTH : j;
+    }
+
+    /**
+     * Copy every value out, oldest first
+     *
+     * @param dest array (at least size() long) to copy into
+     *
+     * @return number of values copied
+     */
+    public int copyTo(double[] dest) {
+        int start = index(0);
+        int first = Math.min(size, LENGTH - start);
+
+        System.arraycopy(DATA, start, dest, 0, first);
+        System.arraycopy(DATA, 0, dest, first, size - first);
+
+        return size;
+    }
+
+
+
+    public double getSum() {
+        double sum = 0;
+
+        for (int i = 0; i < size; i++) {
+            sum += DATA[i]; // order doesn't matter
+        }
+
+        return sum;
+    }
+
+    /** Get the mean of the values (0 if there aren't any) */
+    public double getMean() {
+        return (size == 0) ? 0 : getSum() / size;
+    }
+
+    public double getMin() {
+        double min = Double.POSITIVE_INFINITY;
+
+        for (int i = 0; i < size; i++) {
+            min = Math.min(min, DATA[i]);
+        }
+
+        return min;
+    }
+
+    public double getMax() {
+        double max = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < size; i++) {
+            max = Math.max(max, DATA[i]);
+        }
+
+        return max;
+    }
+
+
+
+
+
+    @Override
+    public String toString() {
+        StringBuilder ret = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            ret.append('\t').append(get(i)).append('\n');
+        }
+
+        return ret.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package frc.robot.utils.data;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+
+/**
+ * Histogram of durations that any number of threads can record into at once without
+ * locking or allocating. All the buckets are made up front.
+ *
+ * Buckets are in microseconds: one per microsecond below 8 us, then 8 per power of 2
+ * (so each bucket is within 12.5% of the value), up to about 33 s. Anything longer
+ * goes in the last bucket. Percentiles come back as the top of their bucket.
+ *
+ * Reading while other threads record gives a slightly fuzzy (but never broken) view,
+ * which is fine for telemetry.
+ */
+public class LatencyHistogram {
+    /** buckets per power of 2 (has to be a power of 2 itself) */
+    private static final int SUB_BUCKETS = 8;
+    private static final int SUB_BITS = 3;
+    /** powers of 2 covered past the linear part, up to 2^25 us */
+    private static final int OCTAVES = 22;
+
+    public static final int BUCKETS = SUB_BUCKETS + OCTAVES * SUB_BUCKETS;
+
+
+
+    private final AtomicLongArray COUNTS = new AtomicLongArray(BUCKETS);
+    private final AtomicLong COUNT = new AtomicLong();
+    private final AtomicLong TOTAL_NANOS = new AtomicLong();
+    private final AtomicLong MAX_NANOS = new AtomicLong();
+
+
+
+    /**
+     * Record a duration
+     *
+     * @param nanos duration in nanoseconds (negative ones are ignored)
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            return;
+        }
+
+        COUNTS.incrementAndGet(bucketOf(nanos / 1000));
+        COUNT.incrementAndGet();
+        TOTAL_NANOS.addAndGet(nanos);
+
+        long max = MAX_NANOS.get();
+        while (nanos > max && !MAX_NANOS.compareAndSet(max, nanos)) {
+            max = MAX_NANOS.get();
+        }
+    }
+
+    /**
+     * Record the time since a start time
+     *
+     * @param startNanos start time from System.nanoTime()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /** Forget everything recorded so far */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            COUNTS.set(i, 0);
+        }
+
+        COUNT.set(0);
+        TOTAL_NANOS.set(0);
+        MAX_NANOS.set(0);
+    }
+
+
+
+    private static int bucketOf(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+
+        int msb = 63 - Long.numberOfLeadingZeros(micros);
+        int shift = msb - SUB_BITS;
+
+        int bucket = (msb - SUB_BITS + 1) * SUB_BUCKETS + (int) ((micros >> shift) & (SUB_BUCKETS - 1));
+
+        return Math.min(bucket, BUCKETS - 1);
+    }
+
+    /** Get the top (in us) of a bucket, everything in it is less than this */
+    private static long bucketTop(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+
+        int shift = bucket / SUB_BUCKETS - 1;
+        long sub = SUB_BUCKETS + bucket % SUB_BUCKETS;
+
+        return (sub + 1) << shift;
+    }
+
+
+
+    /** Get the number of durations recorded */
+    public long getCount() { return COUNT.get(); }
+
+    /** Get the average duration in seconds (0 if nothing's been recorded) */
+    public double getMean() {
+        long count = COUNT.get();
+
+        return (count == 0) ? 0 : TOTAL_NANOS.get() / 1e9 / count;
+    }
+
+    /** Get the longest duration in seconds */
+    public double getMax() { return MAX_NANOS.get() / 1e9; }
+
+    /**
+     * Get a percentile of the durations
+     *
+     * @param percentile percentile from 0 to 100
+     *
+     * @return duration in seconds that the percentile falls under (0 if nothing's been recorded)
+     */
+    public double getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += COUNTS.get(i);
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        // rank of the value we want, 1 based
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += COUNTS.get(i);
+
+            if (seen >= rank) {
+                // top of the bucket, but no higher than anything actually recorded
+                return Math.min(bucketTop(i) / 1e6, getMax());
+            }
+        }
+
+        return getMax();
+    }
+
+    /**
+     * Copy the bucket counts
+     *
+     * @param counts array (at least BUCKETS long) to copy into
+     */
+    public void getCounts(long[] counts) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = COUNTS.get(i);
+        }
+    }
+
+    /** Get the top of a bucket in seconds, everything in it is shorter than this */
+    public static double getBucketTop(int bucket) {
+        return bucketTop(bucket) / 1e6;
+    }
+
+
+
+    @Override
+    public String toString() {
+        return String.format(
+            "n: %d, mean: %.1f us, p50: %.1f us, p99: %.1f us, max: %.1f us",
+            getCount(), getMean() * 1e6, getPercentile(50) * 1e6, getPercentile(99) * 1e6, getMax() * 1e6
+        );
+    }
+}
@@ -0,0 +1,262 @@
+package frc.robot.utils.data;
+
+
+
+/**
+ * Window of the last however many samples added, oldest first, where every sample has
+ * the same number of channels (like position, velocity and current of a motor).
+ *
+ * All of it lives in one double[] made up front, sample after sample, so adding is a
+ * few array writes and never allocates, and copying it all out is at most two
+ * arraycopies.
+ */
+public class SampleWindow {
+    private final double[] DATA;
+    private final int LENGTH;
+    private final int CHANNELS;
+
+    private int next = 0; // next sample to replace
+    private int size = 0;
+
+
+
+    /**
+     * @param length number of samples to keep
+     * @param channels number of values in every sample
+     */
+    public SampleWindow(int length, int channels) {
+        if (length <= 0) {
+            throw new IllegalArgumentException("Length has to be positive, not " + length);
+        }
+        if (channels <= 0) {
+            throw new IllegalArgumentException("Channels has to be positive, not " + channels);
+        }
+
+        LENGTH = length;
+        CHANNELS = channels;
+        DATA = new double[length * channels];
+    }
+
+
+
+
+
+    public void reset() {
+        next = 0;
+        size = 0;
+    }
+
+
+
+    /**
+     * Add a sample, replacing the oldest one if the window is full
+     *
+     * @param sample array with a value for every channel (copied, so it can be reused)
+     */
+    public void add(double[] sample) {
+        System.arraycopy(sample, 0, DATA, next * CHANNELS, CHANNELS);
+
+        advance();
+    }
+
+    /**
+     * Add a sample to a window with 2 channels (so nothing has to make an array)
+     *
+     * @throws IllegalStateException if the window doesn't have 2 channels
+     */
+    public void add(double a, double b) {
+        if (CHANNELS != 2) {
+            throw new IllegalStateException("Added 2 values to a window with " + CHANNELS + " channels");
+        }
+
+        int start = next * CHANNELS;
+        DATA[start] = a;
+        DATA[start + 1] = b;
+
+        advance();
+    }
+
+    /**
+     * Add a sample to a window with 3 channels (so nothing has to make an array)
+     *
+     * @throws IllegalStateException if the window doesn't have 3 channels
+     */
+    public void add(double a, double b, double c) {
+        if (CHANNELS != 3) {
+            throw new IllegalStateException("Added 3 values to a window with " + CHANNELS + " channels");
+        }
+
+        int start = next * CHANNELS;
+        DATA[start] = a;
+        DATA[start + 1] = b;
+        DATA[start + 2] = c;
+
+        advance();
+    }
+
+    private void advance() {
+        next++;
+        if (next == LENGTH) {
+            next = 0; // next sample replaces the first one
+        }
+
+        if (size < LENGTH) {
+            size++;
+        }
+    }
+
+
+
+    // do we have enough data?
+    public boolean isFilled() {
+        return size == LENGTH;
+    }
+
+    /** Get the number of samples in the window */
+    public int size() {
+        return size;
+    }
+
+    /** Get the number of samples the window can hold */
+    public int getLength() {
+        return LENGTH;
+    }
+
+    public int getChannels() {
+        return CHANNELS;
+    }
+
+
+
+    /**
+     * Get one value of a sample
+     *
+     * @param i index of the sample, 0 is the oldest and size() - 1 the newest
+     * @param channel channel of the value
+     */
+    public double get(int i, int channel) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of " + size);
+        }
+        if (channel < 0 || channel >= CHANNELS) {
+            throw new IndexOutOfBoundsException("Channel " + channel + " out of " + CHANNELS);
+        }
+
+        return DATA[index(i) * CHANNELS + channel];
+    }
+
+    /**
+     * Copy a whole sample out
+     *
+     * @param i index of the sample, 0 is the oldest and size() - 1 the newest
+     * @param dest array (at least getChannels() long) to copy into
+     */
+    public void get(int i, double[] dest) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of " + size);
+        }
+
+        System.arraycopy(DATA, index(i) * CHANNELS, dest, 0, CHANNELS);
+    }
+
+    /** Get one value of the newest sample (0 if there aren't any) */
+    public double getNewest(int channel) {
+        return (size == 0) ? 0 : get(size - 1, channel);
+    }
+
+    private int index(int i) {
+        // oldest sample is at next once the window's full, at 0 before that
+        int j = next - size + i;
+
+        return (j < 0) ? j + LENGTH : j;
+    }
+
+    /**
+     * Copy every sample out, oldest first, one after another
+     *
+     * @param dest array (at least size() * getChannels() long) to copy into
+     *
+     * @return number of samples copied
+     */
+    public int copyTo(double[] dest) {
+        int start = index(0);
+        int first = Math.min(size, LENGTH - start);
+
+        System.arraycopy(DATA, start * CHANNELS, dest, 0, first * CHANNELS);
+        System.arraycopy(DATA, 0, dest, first * CHANNELS, (size - first) * CHANNELS);
+
+        return size;
+    }
+
+    /**
+     * Copy one channel of every sample out, oldest first
+     *
+     * @param channel channel to copy
+     * @param dest array (at least size() long) to copy into
+     *
+     * @return number of values copied
+     */
+    public int copyChannel(int channel, double[] dest) {
+        if (channel < 0 || channel >= CHANNELS) {
+            throw new IndexOutOfBoundsException("Channel " + channel + " out of " + CHANNELS);
+        }
+
+        int j = index(0);
+
+        for (int i = 0; i < size; i++) {
+            dest[i] = DATA[j * CHANNELS + channel];
+
+            j++;
+            if (j == LENGTH) {
+                j = 0;
+            }
+        }
+
+        return size;
+    }
+
+
+
+    /** Get the mean of one channel (0 if there aren't any samples) */
+    public double getMean(int channel) {
+        if (channel < 0 || channel >= CHANNELS) {
+            throw new IndexOutOfBoundsException("Channel " + channel + " out of " + CHANNELS);
+        }
+        if (size == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+
+        for (int i = 0; i < size; i++) {
+            sum += DATA[i * CHANNELS + channel]; // order doesn't matter
+        }
+
+        return sum / size;
+    }
+
+
+
+
+
+    @Override
+    public String toString() {
+        StringBuilder ret = new StringBuilder();
+
+        for (int i = 0; i < size; i++) {
+            int start = index(i) * CHANNELS;
+
+            ret.append('\t');
+            for (int c = 0; c < CHANNELS; c++) {
+                if (c > 0) {
+                    ret.append(", ");
+                }
+
+                ret.append(DATA[start + c]);
+            }
+            ret.append('\n');
+        }
+
+        return ret.toString();
+    }
+}
@@ -1,7 +1,7 @@
 package frc.robot.utils.math.units;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class BaseUnit {
     /** Dimensions for BaseUnits to measure */
@@ -28,10 +28,26 @@ public class BaseUnit {
 
 
 
-    /** Whether to store conversions to other units. Trade-off between computation time and memory space. */
-    protected boolean storeConversions = false;
-    /** Stored conversions from a Unit of the same Dimension(s) to another */
-    protected HashMap<BaseUnit, Double> conversions = new HashMap<BaseUnit, Double>();
+    /** next ID to give to a BaseUnit */
+    private static final AtomicInteger NEXT_ID = new AtomicInteger(0);
+    /**
+     * Unique ID of this unit. Names aren't unique (every encoder has its own "tick"),
+     * so this is what canonical unit signatures are built from.
+     */
+    private final int ID = NEXT_ID.getAndIncrement();
+
+
+
+    /**
+     * Bumped whenever any BaseUnit's conversion changes, so Units know to recompute
+     * their own conversions to standard units
+     */
+    private static volatile int conversionVersion = 0;
+
+    /** Get the number of times any BaseUnit's conversion has been changed */
+    public static int getConversionVersion() {
+        return conversionVersion;
+    }
     
     
     
@@ -51,7 +67,7 @@ public class BaseUnit {
         nums.add(this);
         ArrayList<BaseUnit> denoms = new ArrayList<BaseUnit>();
 
-        UNIT = new Unit(nums, denoms);
+        UNIT = new Unit(nums, denoms).intern();
         
         NAME = name;
     }
@@ -77,7 +93,9 @@ public class BaseUnit {
     public BaseUnit(BaseUnit unit, double per, String name) {
         this(unit.getDimension(), name);
 
-        setPer(unit, per);
+        // not setPer(), nothing has converted with a brand new unit yet, so there's no
+        // need to make every unit (and the ConversionCache) throw out what they worked out
+        this.perStandard = per * unit.perStandard();
     }
     
     
@@ -85,6 +103,10 @@ public class BaseUnit {
     public String getName() {
     	return NAME;
     }
+
+    public int getID() {
+        return ID;
+    }
     
     @Override
     public String toString() { return getName(); }
@@ -131,6 +153,11 @@ public class BaseUnit {
      */
     public void setPerStandard(double perStandard) {
         this.perStandard = perStandard;
+
+        // anything cached involving this unit is now wrong
+        synchronized (BaseUnit.class) {
+            conversionVersion++;
+        }
     }
     
     public double getPerStandard() {
@@ -149,11 +176,6 @@ public class BaseUnit {
             return;
         }
 
-        // if storing conversions, might as well store this given one
-        if (storeConversions) {
-            conversions.put(unit2, per);
-        }
-
         // units / 1 bu * bu/std = units/std
         setPerStandard(per * unit2.perStandard());
     }
@@ -184,18 +206,7 @@ public class BaseUnit {
      * @return how many of this unit are in bu, or 0 if dimensions are incompatible
      */
     public double per(BaseUnit unit2) {
-        // don't double calculate if you already know the conversion
-        if (storeConversions) {
-            Double conv = conversions.get(unit2);
-
-            // if you know the conversion, return it
-            if (conv != null) {
-                return conv;
-            }
-        }
-
         // return 0 if dimensions are incompatible
-        // not needed at start because only stores comptatible BaseUnit conversions
         if (unit2.getDimension() != DIM) {
             return 0; // ig
         }
@@ -207,14 +218,7 @@ public class BaseUnit {
         // unit/standard = 1/perStandard
         // standard/unit = perStandard
         // standard = 
-        double per = perStandard / unit2.perStandard();
-        
-        // if storing conversions, store this one now that the unit knows it
-        if (storeConversions) {
-            conversions.put(unit2, per);
-        }
-
-        return per;
+        return perStandard / unit2.perStandard();
     }
 
     public double per(Unit unit2) {
@@ -222,28 +226,9 @@ public class BaseUnit {
             return 0;
         }
 
-        BaseUnit bu = unit2.getNumeratorList().get(0);
-
-        // don't double calculate if you already know the conversion
-        if (storeConversions) {
-            Double conv = conversions.get(bu);
-
-            // if you know the conversion, return it
-            if (conv != null) {
-                // x in/(2*ft) = 1
-                // x = 1 * (2ft)/in = 2 ft/in = 2 * 12 = 24
-                return unit2.getCoefficient() * conv;
-            }
-        }
-
-        // units/std * std/units2 = units/units2
-        double per = perStandard / bu.perStandard() * unit2.getCoefficient();
-        // if storing conversions, store this one now that the unit knows it
-        if (storeConversions) {
-            conversions.put(bu, per);
-        }
-
-        return per;
+        // units/std * std/units2 = units/units2 (unit2's perStandard already has its
+        // coefficient in it, so there are 24 in per 2 ft)
+        return perStandard / unit2.perStandard();
     }
 
     public Unit multiply(BaseUnit unit2) {
@@ -0,0 +1,289 @@
+package frc.robot.utils.math.units;
+
+
+
+/**
+ * Process-wide cache of conversions between Units (how many of one Unit are in
+ * another, as returned by Unit.per).
+ *
+ * Units don't have to be the same object to share a cache entry: entries are keyed
+ * on the canonical signatures of the two units (which BaseUnits, to what powers, and
+ * the coefficient), so structurally identical units hit the same entry.
+ *
+ * The cache is bounded and evicts the least recently used conversion when full. The
+ * only thing it holds per entry is the two signatures and the conversion, so memory
+ * stays bounded no matter how many units come and go. It's backed by arrays so
+ * lookups don't allocate or box anything, and all access is synchronized so Notifier
+ * threads and the main robot thread can share it.
+ *
+ * Any BaseUnit conversion changing (BaseUnit.getConversionVersion()) empties it.
+ */
+public class ConversionCache {
+    /** Default maximum amount of conversions to remember */
+    public static final int DEFAULT_CAPACITY = 256;
+
+
+
+    private static final ConversionCache INSTANCE = new ConversionCache(DEFAULT_CAPACITY);
+
+    /** Get the global conversion cache */
+    public static ConversionCache getInstance() {
+        return INSTANCE;
+    }
+
+
+
+
+
+    /*
+     * Entries live in parallel arrays indexed 0..capacity-1. Each entry is in a hash
+     * bucket chain (for lookup) and in a doubly linked list ordered from most to
+     * least recently used (for eviction). -1 is used as null.
+     */
+    private final int CAPACITY;
+
+    /** signature of the unit converted from */
+    private final String[] FROM;
+    /** signature of the unit converted to */
+    private final String[] TO;
+    private final int[] HASHES;
+    private final double[] VALUES;
+    /** next entry in the same hash bucket */
+    private final int[] CHAIN;
+    /** more recently used neighbor */
+    private final int[] PREV;
+    /** less recently used neighbor */
+    private final int[] NEXT;
+    /** first entry in each hash bucket */
+    private final int[] BUCKETS;
+    private final int MASK;
+
+    /** most recently used entry */
+    private int head = -1;
+    /** least recently used entry */
+    private int tail = -1;
+    private int size = 0;
+
+    /** BaseUnit conversion version the entries were computed with */
+    private int version = BaseUnit.getConversionVersion();
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+
+
+    /**
+     * Create a conversion cache
+     *
+     * @param capacity maximum amount of conversions to store
+     */
+    public ConversionCache(int capacity) {
+        CAPACITY = Math.max(1, capacity);
+
+        FROM = new String[CAPACITY];
+        TO = new String[CAPACITY];
+        HASHES = new int[CAPACITY];
+        VALUES = new double[CAPACITY];
+        CHAIN = new int[CAPACITY];
+        PREV = new int[CAPACITY];
+        NEXT = new int[CAPACITY];
+
+        // power of 2 at least twice the capacity to keep chains short
+        int buckets = Integer.highestOneBit(CAPACITY * 2 - 1) << 1;
+        BUCKETS = new int[buckets];
+        MASK = buckets - 1;
+
+        clear();
+    }
+
+
+
+    private static int hash(String from, String to) {
+        // mix the two so (a, b) and (b, a) land in different buckets
+        long h = (from.hashCode() * 31L + to.hashCode()) * 0x9E3779B97F4A7C15L;
+
+        return (int) (h >>> 32);
+    }
+
+    private int find(String from, String to, int hash) {
+        for (int i = BUCKETS[hash & MASK]; i != -1; i = CHAIN[i]) {
+            if (HASHES[i] == hash && FROM[i].equals(from) && TO[i].equals(to)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private void unlink(int i) {
+        if (PREV[i] != -1) { NEXT[PREV[i]] = NEXT[i]; } else { head = NEXT[i]; }
+        if (NEXT[i] != -1) { PREV[NEXT[i]] = PREV[i]; } else { tail = PREV[i]; }
+    }
+
+    private void linkFirst(int i) {
+        PREV[i] = -1;
+        NEXT[i] = head;
+
+        if (head != -1) {
+            PREV[head] = i;
+        }
+        head = i;
+
+        if (tail == -1) {
+            tail = i;
+        }
+    }
+
+    private void removeFromBucket(int i) {
+        int b = HASHES[i] & MASK;
+
+        if (BUCKETS[b] == i) {
+            BUCKETS[b] = CHAIN[i];
+            return;
+        }
+
+        for (int j = BUCKETS[b]; j != -1; j = CHAIN[j]) {
+            if (CHAIN[j] == i) {
+                CHAIN[j] = CHAIN[i];
+                return;
+            }
+        }
+    }
+
+    /** Forget everything if a BaseUnit conversion changed since it was computed */
+    private void checkVersion() {
+        int current = BaseUnit.getConversionVersion();
+
+        if (current != version) {
+            clear();
+            version = current;
+        }
+    }
+
+
+
+    /**
+     * Look up a conversion
+     *
+     * @param from unit converted from
+     * @param to unit converted to
+     *
+     * @return how many of from are in to (like Unit.per), or NaN if not stored
+     */
+    public synchronized double get(Unit from, Unit to) {
+        checkVersion();
+
+        String fromSig = from.getSignature();
+        String toSig = to.getSignature();
+        int i = find(fromSig, toSig, hash(fromSig, toSig));
+
+        if (i == -1) {
+            misses++;
+
+            return Double.NaN;
+        }
+
+        hits++;
+
+        if (head != i) {
+            unlink(i);
+            linkFirst(i);
+        }
+
+        return VALUES[i];
+    }
+
+    /**
+     * Store a conversion, evicting the least recently used one if full
+     *
+     * @param from unit converted from
+     * @param to unit converted to
+     * @param value how many of from are in to
+     * @param computedVersion BaseUnit.getConversionVersion() from before value was
+     * computed; if a conversion has changed since, value might be stale and isn't stored
+     */
+    public synchronized void put(Unit from, Unit to, double value, int computedVersion) {
+        checkVersion();
+
+        if (computedVersion != version) {
+            return;
+        }
+
+        String fromSig = from.getSignature();
+        String toSig = to.getSignature();
+        int hash = hash(fromSig, toSig);
+        int i = find(fromSig, toSig, hash);
+
+        if (i != -1) {
+            VALUES[i] = value;
+
+            unlink(i);
+            linkFirst(i);
+
+            return;
+        }
+
+        if (size < CAPACITY) {
+            i = size;
+            size++;
+        } else {
+            // reuse the least recently used entry
+            i = tail;
+
+            unlink(i);
+            removeFromBucket(i);
+
+            evictions++;
+        }
+
+        FROM[i] = fromSig;
+        TO[i] = toSig;
+        HASHES[i] = hash;
+        VALUES[i] = value;
+
+        int b = hash & MASK;
+        CHAIN[i] = BUCKETS[b];
+        BUCKETS[b] = i;
+
+        linkFirst(i);
+    }
+
+    /** Forget all stored conversions (statistics are kept) */
+    public synchronized void clear() {
+        for (int i = 0; i < BUCKETS.length; i++) {
+            BUCKETS[i] = -1;
+        }
+
+        // don't keep signatures around for nothing
+        for (int i = 0; i < size; i++) {
+            FROM[i] = null;
+            TO[i] = null;
+        }
+
+        head = -1;
+        tail = -1;
+        size = 0;
+    }
+
+
+
+    public synchronized int size() { return size; }
+    public int getCapacity() { return CAPACITY; }
+
+    public synchronized long getHits() { return hits; }
+    public synchronized long getMisses() { return misses; }
+    public synchronized long getEvictions() { return evictions; }
+
+    public synchronized void resetStatistics() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ConversionCache[" + size + "/" + CAPACITY + ", hits: " + hits + ", misses: " + misses
+            + ", evictions: " + evictions + "]";
+    }
+}
@@ -0,0 +1,173 @@
+package frc.robot.utils.math.units;
+
+
+
+/**
+ * Quantity that can be changed in place. Quantity is immutable, so every operation on
+ * it makes a new one, which is fine for setup but makes a lot of garbage in 200 Hz+
+ * loops. Loop code can keep one of these around and reuse it instead.
+ * 
+ * Operations that don't change the unit (converting, adding, scaling) never allocate.
+ */
+public class MutableQuantity {
+    private double value;
+    private Unit unit;
+
+
+
+    public MutableQuantity(double value, Unit unit) {
+        this.value = value;
+        this.unit = unit;
+    }
+
+    public MutableQuantity(double value, BaseUnit unit) {
+        this(value, unit.getUnit());
+    }
+
+    public MutableQuantity(Quantity quantity) {
+        this(quantity.getValue(), quantity.getUnit());
+    }
+
+
+
+    public Unit getUnit() { return unit; }
+    public double getValue() { return value; }
+
+    /**
+     * Get the value in another unit (without changing this quantity)
+     * 
+     * @param unit2 unit to get the value in
+     * 
+     * @return value in unit2
+     */
+    public double getValue(Unit unit2) {
+        return Quantity.convert(value, unit, unit2);
+    }
+
+    public double getValue(BaseUnit unit2) {
+        return getValue(unit2.getUnit());
+    }
+
+
+
+    public MutableQuantity set(double value) {
+        this.value = value;
+
+        return this;
+    }
+
+    public MutableQuantity set(double value, Unit unit) {
+        this.value = value;
+        this.unit = unit;
+
+        return this;
+    }
+
+    public MutableQuantity set(double value, BaseUnit unit) {
+        return set(value, unit.getUnit());
+    }
+
+    public MutableQuantity set(Quantity quantity) {
+        return set(quantity.getValue(), quantity.getUnit());
+    }
+
+    public MutableQuantity set(MutableQuantity quantity) {
+        return set(quantity.getValue(), quantity.getUnit());
+    }
+
+
+
+    /**
+     * Convert this quantity to another unit in place
+     * 
+     * @param unit2 unit to convert to
+     * 
+     * @return this
+     */
+    public MutableQuantity to(Unit unit2) {
+        value = Quantity.convert(value, unit, unit2);
+        unit = unit2;
+
+        return this;
+    }
+
+    public MutableQuantity to(BaseUnit unit2) {
+        return to(unit2.getUnit());
+    }
+
+    public MutableQuantity scale(double factor) {
+        value *= factor;
+
+        return this;
+    }
+
+
+
+    /**
+     * Add a value in some unit to this quantity, or do nothing if incompatible
+     * 
+     * @param value2 value to add
+     * @param unit2 unit value2 is in
+     * 
+     * @return this
+     */
+    public MutableQuantity add(double value2, Unit unit2) {
+        if (unit.isCompatible(unit2)) {
+            value += Quantity.convert(value2, unit2, unit);
+        }
+
+        return this;
+    }
+
+    public MutableQuantity add(Quantity q2) {
+        return add(q2.getValue(), q2.getUnit());
+    }
+
+    public MutableQuantity add(MutableQuantity q2) {
+        return add(q2.getValue(), q2.getUnit());
+    }
+
+    public MutableQuantity subtract(double value2, Unit unit2) {
+        return add(-value2, unit2);
+    }
+
+    public MutableQuantity subtract(Quantity q2) {
+        return add(-q2.getValue(), q2.getUnit());
+    }
+
+    public MutableQuantity subtract(MutableQuantity q2) {
+        return add(-q2.getValue(), q2.getUnit());
+    }
+
+
+
+    /*
+     * These change the unit, so they go through Unit.multiply/divide (which interns
+     * the result, but still has to build it first)
+     */
+    public MutableQuantity multiply(Quantity q2) {
+        value *= q2.getValue();
+        unit = unit.multiply(q2.getUnit());
+
+        return this;
+    }
+
+    public MutableQuantity divide(Quantity q2) {
+        value /= q2.getValue();
+        unit = unit.divide(q2.getUnit());
+
+        return this;
+    }
+
+
+
+    /** Get an immutable copy of this quantity */
+    public Quantity toQuantity() {
+        return new Quantity(value, unit);
+    }
+
+    @Override
+    public String toString() {
+    	return value + " " + unit.toString();
+    }
+}
@@ -28,6 +28,54 @@ public class Quantity {
         return to(unit2.getUnit());
     }
 
+    /**
+     * Get the value of this quantity in another unit without making a new Quantity
+     * 
+     * @param unit2 unit to get the value in
+     * 
+     * @return value in unit2
+     */
+    public double getValue(Unit unit2) {
+        return convert(VALUE, UNIT, unit2);
+    }
+
+    public double getValue(BaseUnit unit2) {
+        return getValue(unit2.getUnit());
+    }
+
+
+
+    /*
+     * Primitive conversions for loop code, so you can keep unit safety without
+     * making a new Quantity (and maybe a new Unit) every time. If you're converting
+     * between the same two units over and over, use a UnitConverter instead.
+     */
+    /**
+     * Convert a value from one unit to another. Same as
+     * new Quantity(value, from).to(to).getValue() without the garbage.
+     * 
+     * @param value value in from
+     * @param from unit value is in
+     * @param to unit to convert to
+     * 
+     * @return value in to
+     */
+    public static double convert(double value, Unit from, Unit to) {
+        return value / from.per(to);
+    }
+
+    public static double convert(double value, BaseUnit from, BaseUnit to) {
+        return value / from.per(to);
+    }
+
+    public static double convert(double value, BaseUnit from, Unit to) {
+        return value / from.per(to);
+    }
+
+    public static double convert(double value, Unit from, BaseUnit to) {
+        return value / from.per(to);
+    }
+
     public Quantity multiply(Quantity q2) {
         return new Quantity(VALUE * q2.getValue(), UNIT.multiply(q2.getUnit()));
     }
@@ -56,7 +104,7 @@ public class Quantity {
 
     public Quantity add(Quantity q2) {
         if (UNIT.isCompatible(q2.getUnit())) {
-            return new Quantity(VALUE + q2.to(UNIT).getValue(), UNIT);
+            return new Quantity(VALUE + q2.getValue(UNIT), UNIT);
         } else {
             return null;
         }
@@ -64,7 +112,7 @@ public class Quantity {
 
     public Quantity subtract(Quantity q2) {
         if (UNIT.isCompatible(q2.getUnit())) {
-            return new Quantity(VALUE - q2.to(UNIT).getValue(), UNIT);
+            return new Quantity(VALUE - q2.getValue(UNIT), UNIT);
         } else {
             return null;
         }
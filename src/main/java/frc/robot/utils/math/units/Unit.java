@@ -3,10 +3,12 @@ package frc.robot.utils.math.units;
 import frc.robot.utils.math.units.BaseUnit;
 import frc.robot.utils.math.units.BaseUnit.Dimension;
 
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Arrays;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 
@@ -15,34 +17,39 @@ import java.util.HashMap;
  */
 public class Unit {
 	/*
-     * instead of storing numerator units and denominator units, we can store
-     * numerator and denominator units PER dimension. This allows us to group
-     * units into dimensions. The reason this is helpful is as follows:
-     * 
      * Suppose you are looking at units of momentum and have
      * kgm/s: KG * M / S
      * lbft/s: FT * LB / S
-     * Simply looping through these to determine the conversion would require
-     * dividing a kilogram by a foot and a meter by a pound. Basically grouping
-     * would let us divide the correct units by each other to get the conversion.
-     * aka invariant under switching order of inputed units.
-     * 
+     * Looping through these to match up which units to divide by each other is slow
+     * and easy to mess up (can't divide a kilogram by a foot). Instead, every unit is
+     * boiled down to two things:
+     *  - how many of each dimension it has (an exponent vector, packed into a long)
+     *  - how many of it are in the corresponding standard unit (like BaseUnit.perStandard)
+     * Two units are compatible iff their exponent vectors are equal, and the conversion
+     * between them is just the ratio of their perStandards. Invariant under switching
+     * order of inputed units too.
+     *
+     * The unit itself is stored as each distinct BaseUnit with an integer power
+     * (negative for the denominator), so kg m^2/(s^3 A) is 4 BaseUnits rather than
+     * 3 numerator units and 4 denominator units.
+     *
      * Note: units are reduced in constructor so that there are none of the
      * same unit in both the numerator and denominator
      */
-    /** BaseUnits in numerator grouped by dimension they measure */
-    private final HashMap<Dimension, ArrayList<BaseUnit>> NUMERATOR;
-    /** BaseUnits in denominator grouped by dimension they measure */
-    private final HashMap<Dimension, ArrayList<BaseUnit>> DENOMINATOR;
+    /** distinct BaseUnits in the unit, in order of first appearance */
+    private final BaseUnit[] BASES;
+    /** power of each of BASES, never 0 */
+    private final int[] POWERS;
 
-    private final ArrayList<BaseUnit> NUMERATOR_LIST;
-    private final ArrayList<BaseUnit> DENOMINATOR_LIST;
+    /** bits per dimension in the packed exponent vector */
+    private static final int DIMENSION_BITS = 8;
+    private static final long DIMENSION_MASK = (1L << DIMENSION_BITS) - 1;
 
     /**
-     * Total count of how many of each dimension are in the unit.
-     * For example, kg m^2 -> Mass: 1, Length: 2
+     * Exponent of each dimension in the unit, packed as signed bytes in order of
+     * Dimension.ordinal(). For example, kg m^2 -> Mass: 1, Length: 2
      */
-    private final HashMap<Dimension, Integer> DIMENSIONS;
+    private final long DIMENSIONS;
     /**
      * Coefficient in front of unit resulting from cancellation within
      * same dimension. For example, if unit is a kg inch/cm then it is just
@@ -52,309 +59,544 @@ public class Unit {
 
 
 
-    /** Whether to store conversions to other units. Trade-off between computation time and memory space. */
-    private boolean storeConversions = false;
-    /** Stored conversions from a CompositeUnit of the same Dimension to this unit/other unit */
-    private HashMap<Unit, Double> conversions = new HashMap<Unit, Double>();
-    
-    
-    
-    private String name;
+    /**
+     * Canonical signature of this unit (which BaseUnits to what powers, and the coefficient).
+     * Structurally identical units have identical signatures, so it's what equals(),
+     * intern() and the ConversionCache go by. Computed lazily.
+     */
+    private String signature;
+
 
 
+    /** How many of this unit are in the corresponding standard unit */
+    private double perStandard;
+    /**
+     * BaseUnit conversions can technically be changed after creation (BaseUnit.setPerStandard),
+     * so perStandard is recomputed if that's happened since it was last computed
+     */
+    private volatile int perStandardVersion = -1;
+
+
+
+    /** name given to the unit, or null if it goes by its default name */
+    private String name;
+    /** generated name of the unit, computed lazily */
+    private String defaultName;
 
 
 
     /**
-     * Warning: this constructor may modify numerator and denominator variables
-     * 
-     * Create a CompositeUnit with a list of numerator and denominator units
-     * 
-     * @param numerator list of numerator units
-     * @param denominator list of denominator units
-     * @param coeff0
+     * Canonical instances of units, keyed by signature (plus name for named units).
+     * See intern(). Held weakly, so a canonical unit nothing uses anymore (like one
+     * with a coefficient from a parsed config) drops out instead of staying forever.
      */
-    public Unit(List<BaseUnit> numerator, List<BaseUnit> denominator, double coeff0) {
-        HashMap<Dimension, ArrayList<BaseUnit>> nums   = new HashMap<Dimension, ArrayList<BaseUnit>>();
-        HashMap<Dimension, ArrayList<BaseUnit>> denoms = new HashMap<Dimension, ArrayList<BaseUnit>>();
-        ArrayList<BaseUnit> numsList = new ArrayList<BaseUnit>();
-        ArrayList<BaseUnit> denomsList = new ArrayList<BaseUnit>();
-        HashMap<Dimension, Integer> dims = new HashMap<Dimension, Integer>();
-        double coeff = coeff0;
+    private static final ConcurrentHashMap<String, CanonicalRef> CANONICAL = new ConcurrentHashMap<String, CanonicalRef>();
+    /** canonical units that have been garbage collected, to take out of CANONICAL */
+    private static final ReferenceQueue<Unit> COLLECTED = new ReferenceQueue<Unit>();
 
-        Dimension[] dimList = Dimension.values();
+    private static class CanonicalRef extends WeakReference<Unit> {
+        private final String KEY;
 
-        for (int i = 0; i < dimList.length; i++) {
-            Dimension dim = dimList[i];
+        private CanonicalRef(String key, Unit unit) {
+            super(unit, COLLECTED);
 
-            nums.put(dim, new ArrayList<BaseUnit>());
-            denoms.put(dim, new ArrayList<BaseUnit>());
-            dims.put(dim, 0);
+            KEY = key;
         }
+    }
 
 
 
-        for (int i = 0; i < numerator.size(); i++) {
-            BaseUnit num = numerator.get(i);
 
-            for (int j = 0; j < denominator.size(); j++) {
-                BaseUnit denom = denominator.get(j);
 
-                if (num.getDimension() == denom.getDimension()) {
-                	// perDenom nums/denom = 1
-                	// nums/denom = 1/perDenom
-                    coeff /= num.per(denom);
+    /**
+     * Create a Unit from BaseUnits raised to integer powers. The same BaseUnit may
+     * show up more than once, its powers are added together.
+     *
+     * @param bases BaseUnits in the unit
+     * @param powers power of each BaseUnit (negative for denominator)
+     * @param count number of entries of bases/powers to use
+     * @param coeff0 coefficient in front of the unit
+     */
+    public Unit(BaseUnit[] bases, int[] powers, int count, double coeff0) {
+        BaseUnit[] distinct = new BaseUnit[count];
+        int[] pows = new int[count];
+        int n = 0;
+        double coeff = coeff0;
+
+        // combine repeated BaseUnits (the number of distinct ones is tiny, so
+        // scanning is faster than hashing)
+        for (int i = 0; i < count; i++) {
+            int j = indexOf(distinct, n, bases[i]);
+
+            if (j == -1) {
+                distinct[n] = bases[i];
+                pows[n] = powers[i];
+                n++;
+            } else {
+                pows[j] += powers[i];
+            }
+        }
 
-                    numerator.remove(i);
-                    denominator.remove(j);
+        // cancel different BaseUnits of the same dimension in the numerator and
+        // denominator (in/cm -> 2.54), pairing them off the same as you would by hand
+        for (int i = 0; i < n; i++) {
+            if (pows[i] <= 0) { continue; }
 
-                    i--;
+            for (int j = 0; j < n && pows[i] > 0; j++) {
+                if (pows[j] >= 0 || distinct[i].getDimension() != distinct[j].getDimension()) {
+                    continue;
                 }
+
+                int cancelled = Math.min(pows[i], -pows[j]);
+
+            	// perDenom nums/denom = 1
+            	// nums/denom = 1/perDenom
+                coeff /= Math.pow(distinct[i].per(distinct[j]), cancelled);
+
+                pows[i] -= cancelled;
+                pows[j] += cancelled;
             }
         }
 
-        for (int i = 0; i < numerator.size(); i++) {
-            BaseUnit num = numerator.get(i);
-            Dimension dim = num.getDimension();
+        // drop anything that cancelled out entirely
+        int m = 0;
+        long dims = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (pows[i] != 0) {
+                distinct[m] = distinct[i];
+                pows[m] = pows[i];
+
+                dims = addDimension(dims, distinct[m].getDimension(), pows[m]);
+                m++;
+            }
+        }
+
+        BASES = Arrays.copyOf(distinct, m);
+        POWERS = Arrays.copyOf(pows, m);
+        DIMENSIONS = dims;
+        COEFF = coeff;
+    }
+
+    public Unit(BaseUnit[] bases, int[] powers, int count, double coeff0, String name) {
+        this(bases, powers, count, coeff0);
+
+        this.name = name;
+    }
+
+    public Unit(BaseUnit[] bases, int[] powers, double coeff0) {
+        this(bases, powers, Math.min(bases.length, powers.length), coeff0);
+    }
+
+    public Unit(BaseUnit[] bases, int[] powers, double coeff0, String name) {
+        this(bases, powers, coeff0);
+
+        this.name = name;
+    }
+
+    /**
+     * Create a Unit with a list of numerator and denominator units
+     *
+     * @param numerator list of numerator units
+     * @param denominator list of denominator units
+     * @param coeff0
+     */
+    public Unit(List<BaseUnit> numerator, List<BaseUnit> denominator, double coeff0) {
+        this(concat(numerator, denominator), signs(numerator.size(), denominator.size()), coeff0);
+    }
 
-            nums.get(dim).add(num);
-            dims.put(dim, dims.get(dim) + 1);
-            numsList.add(num);
+    private static BaseUnit[] concat(List<BaseUnit> numerator, List<BaseUnit> denominator) {
+        BaseUnit[] bases = new BaseUnit[numerator.size() + denominator.size()];
+
+        for (int i = 0; i < numerator.size(); i++) {
+            bases[i] = numerator.get(i);
         }
 
         for (int i = 0; i < denominator.size(); i++) {
-            BaseUnit denom = denominator.get(i);
-            Dimension dim = denom.getDimension();
+            bases[numerator.size() + i] = denominator.get(i);
+        }
+
+        return bases;
+    }
+
+    private static int[] signs(int nums, int denoms) {
+        int[] powers = new int[nums + denoms];
+
+        Arrays.fill(powers, 0, nums, 1);
+        Arrays.fill(powers, nums, nums + denoms, -1);
+
+        return powers;
+    }
 
-            denoms.get(dim).add(denom);
-            dims.put(dim, dims.get(dim) - 1);
-            denomsList.add(denom);
+    private static int indexOf(BaseUnit[] bases, int count, BaseUnit bu) {
+        for (int i = 0; i < count; i++) {
+            if (bases[i] == bu) {
+                return i;
+            }
         }
 
-        NUMERATOR = nums;
-        DENOMINATOR = denoms;
-        DIMENSIONS = dims;
-        COEFF = coeff;
-        NUMERATOR_LIST = numsList;
-        DENOMINATOR_LIST = denomsList;
+        return -1;
+    }
+
+    /**
+     * Add to the exponent of a dimension in a packed exponent vector
+     *
+     * @param dims packed exponent vector
+     * @param dim dimension to change the exponent of
+     * @param amount amount to add to the exponent
+     *
+     * @return new packed exponent vector
+     */
+    private static long addDimension(long dims, Dimension dim, int amount) {
+        int shift = dim.ordinal() * DIMENSION_BITS;
+        long exp = getDimension(dims, dim) + amount;
+
+        return (dims & ~(DIMENSION_MASK << shift)) | ((exp & DIMENSION_MASK) << shift);
     }
-    
+
+    /**
+     * Get the exponent of a dimension from a packed exponent vector
+     *
+     * @param dims packed exponent vector
+     * @param dim dimension to get the exponent of
+     *
+     * @return exponent of the dimension
+     */
+    private static int getDimension(long dims, Dimension dim) {
+        // cast to byte to sign extend
+        return (byte) (dims >>> (dim.ordinal() * DIMENSION_BITS));
+    }
+
     public Unit(List<BaseUnit> numerator, List<BaseUnit> denominator, double coeff0, String name) {
     	this(numerator, denominator, coeff0);
-    	
+
     	this.name = name;
     }
 
     /**
-     * Warning: this constructor may modify numerator and denominator variables
-     * 
-     * Create a CompositeUnit with a list of numerator and denominator units
-     * 
+     * Create a Unit with a list of numerator and denominator units
+     *
      * @param numerator list of numerator units
      * @param denominator list of denominator units
      */
     public Unit(List<BaseUnit> numerator, List<BaseUnit> denominator) {
         this(numerator, denominator, 1);
     }
-    
+
     public Unit(List<BaseUnit> numerator, List<BaseUnit> denominator, String name) {
     	this(numerator, denominator);
-    	
+
     	this.name = name;
     }
 
     public Unit(BaseUnit[] numerator, BaseUnit[] denominator, double coeff0) {
         this(Arrays.asList(numerator), Arrays.asList(denominator), coeff0);
     }
-    
+
     public Unit(BaseUnit[] numerator, BaseUnit[] denominator, double coeff0, String name) {
     	this(numerator, denominator, coeff0);
-    	
+
     	this.name = name;
     }
 
     public Unit(BaseUnit[] numerator, BaseUnit[] denominator) {
         this(numerator, denominator, 1);
     }
-    
+
     public Unit(BaseUnit[] numerator, BaseUnit[] denominator, String name) {
     	this(numerator, denominator);
-    	
+
     	this.name = name;
     }
-    
+
     public Unit(Unit unit2, double coeff0) {
-    	this(unit2.getNumeratorList(), unit2.getDenominatorList(), coeff0 * unit2.getCoefficient());
+    	this(unit2.BASES, unit2.POWERS, coeff0 * unit2.getCoefficient());
     }
-    
+
     public Unit(Unit unit2, double coeff0, String name) {
     	this(unit2, coeff0);
-    	
+
     	this.name = name;
     }
-    
-    
-    
-    public String getDefaultName() {String num = "", denom = "";
-		
-		ArrayList<BaseUnit> numUnits = new ArrayList<BaseUnit>();
-		HashMap<BaseUnit, Integer> numUnitPowers = new HashMap<BaseUnit, Integer>();
-		ArrayList<BaseUnit> denomUnits = new ArrayList<BaseUnit>();
-		HashMap<BaseUnit, Integer> denomUnitPowers = new HashMap<BaseUnit, Integer>();
-		
-		
-		
-		for (int i = 0; i < NUMERATOR_LIST.size(); i++) {
-			BaseUnit unit = NUMERATOR_LIST.get(i);
-			
-			if (!numUnitPowers.containsKey(unit)) {
-				numUnits.add(unit);
-				numUnitPowers.put(unit, 0);
-			}
-			
-			numUnitPowers.put(unit, numUnitPowers.get(unit) + 1);
-		}
-		
-		for (int i = 0; i < DENOMINATOR_LIST.size(); i++) {
-			BaseUnit unit = DENOMINATOR_LIST.get(i);
-			
-			if (!denomUnitPowers.containsKey(unit)) {
-				denomUnits.add(unit);
-				denomUnitPowers.put(unit, 0);
-			}
-			
-			denomUnitPowers.put(unit, denomUnitPowers.get(unit) + 1);
-		}
-		
-		
-		
-		if (numUnits.size() == 0) {
-			num = "1";
-		} else if (numUnits.size() == 1) {
-			int pow = numUnitPowers.get(numUnits.get(0));
-			
-			if (pow == 1) {
-				num = numUnits.get(0).toString();
-			} else {
-				num = numUnits.get(0).toString() + "^" + pow;
-			}
-		} else {
-			num = "(";
-			
-			for (int i = 0; i < numUnits.size(); i++) {
-				int pow = numUnitPowers.get(numUnits.get(i));
-				
-				if (pow == 1) {
-					num += numUnits.get(i).toString();
-				} else {
-					num += numUnits.get(i).toString() + "^" + pow;
-				}
-				
-				if (i != numUnits.size() - 1) { // not last one
-// haha funny FRC number 254
-					num += " ";
-				}
-			}
-			
-			num += ")";
-		}
-		
-		if (denomUnits.size() == 0) {
-			denom = "";
-		} else if (denomUnits.size() == 1) {
-			int pow = denomUnitPowers.get(denomUnits.get(0));
-			
-			if (pow == 1) {
-				denom = "/" + denomUnits.get(0).toString();
-			} else {
-				denom = "/" + denomUnits.get(0).toString() + "^" + pow;
-			}
-		} else {
-			denom = "/(";
-			
-			for (int i = 0; i < denomUnits.size(); i++) {
-				int pow = denomUnitPowers.get(denomUnits.get(0));
-				
-				if (pow == 1) {
-					denom += denomUnits.get(i).toString();
-				} else {
-					denom += denomUnits.get(i).toString() + "^" + denomUnitPowers.get(denomUnits.get(i));
-				}
-				
-				if (i != denomUnits.size() - 1) { // not last one
-					denom += " ";
-				}
-			}
-			
-			denom += ")";
-		}
-		
-		
-		
+
+
+
+    private static String term(BaseUnit unit, int pow) {
+        if (pow == 1) {
+            return unit.toString();
+        } else {
+            return unit.toString() + "^" + pow;
+        }
+    }
+
+    public String getDefaultName() {
+        StringBuilder num = new StringBuilder();
+        StringBuilder denom = new StringBuilder();
+        int nums = 0;
+        int denoms = 0;
+
+        for (int i = 0; i < BASES.length; i++) {
+            if (POWERS[i] > 0) {
+                if (nums > 0) { num.append(' '); }
+
+                num.append(term(BASES[i], POWERS[i]));
+                nums++;
+            } else {
+                if (denoms > 0) { denom.append(' '); }
+
+                denom.append(term(BASES[i], -POWERS[i]));
+                denoms++;
+            }
+        }
+
+
+
+        String numStr;
+        String denomStr;
+
+        if (nums == 0) {
+            numStr = "1";
+        } else if (nums == 1) {
+            numStr = num.toString();
+        } else {
+            numStr = "(" + num + ")";
+        }
+
+        if (denoms == 0) {
+            denomStr = "";
+        } else if (denoms == 1) {
+            denomStr = "/" + denom;
+        } else {
+            denomStr = "/(" + denom + ")";
+        }
+
+
+
 		if (COEFF != 1) {
-			if (num.equals("1")) {
-				return COEFF + denom;
+			if (numStr.equals("1")) {
+				return COEFF + denomStr;
 			} else {
-				return COEFF + " " + num + denom;
+				return COEFF + " " + numStr + denomStr;
 			}
 		} else {
-			return num + denom;
+			return numStr + denomStr;
 		}
     }
-    
-    
-    
+
+
+
     public String getName() {
-    	if (name == null) {
-    		name = getDefaultName();
+    	if (name != null) {
+    		return name;
+    	}
+
+    	if (defaultName == null) {
+    		defaultName = getDefaultName();
     	}
-    	
-    	return name;
+
+    	return defaultName;
     }
-    
+
     @Override
     public String toString() { return getName(); }
 
 
 
+    /**
+     * Get the canonical signature of this unit: the powers of each BaseUnit (by ID)
+     * and the coefficient. Two units with the same signature are the same unit, even
+     * if they have different names or were put together in a different order.
+     *
+     * @return canonical signature
+     */
+    public String getSignature() {
+        if (signature == null) {
+            // sort by ID so the order units were put together in doesn't matter
+            // (insertion sort, there's only a handful)
+            int[] order = new int[BASES.length];
+
+            for (int i = 0; i < order.length; i++) {
+                int j = i;
+
+                while (j > 0 && BASES[order[j - 1]].getID() > BASES[i].getID()) {
+                    order[j] = order[j - 1];
+                    j--;
+                }
+
+                order[j] = i;
+            }
+
+            StringBuilder sig = new StringBuilder();
+
+            for (int i = 0; i < order.length; i++) {
+                sig.append(BASES[order[i]].getID()).append('^').append(POWERS[order[i]]).append(' ');
+            }
+
+            // exact bits so there's no rounding in the signature
+            sig.append('x').append(Long.toHexString(Double.doubleToLongBits(COEFF)));
+
+            signature = sig.toString();
+        }
+
+        return signature;
+    }
+
+    /**
+     * Units are equal if they are structurally the same: same BaseUnits to the same
+     * powers with the same coefficient. Names don't matter, so J equals Nm.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof Unit)) {
+            return false;
+        }
+
+        return getSignature().equals(((Unit) o).getSignature());
+    }
+
+    @Override
+    public int hashCode() {
+        return getSignature().hashCode();
+    }
+
+    /**
+     * Get the canonical instance of this unit, like String.intern(). All structurally
+     * equal units without a name resolve to the same instance, and all structurally
+     * equal units with the same name resolve to the same instance, so rebuilding a unit
+     * over and over doesn't keep piling up copies of it.
+     *
+     * Canonical units are only kept while something else uses them (Units constants
+     * always are), so the registry only ever holds the units actually in use.
+     *
+     * @return canonical instance of this unit
+     */
+    public Unit intern() {
+        expungeCollected();
+
+        String key = (name == null) ? getSignature() : getSignature() + "|" + name;
+
+        while (true) {
+            CanonicalRef ref = CANONICAL.get(key);
+            Unit canonical = (ref == null) ? null : ref.get();
+
+            if (canonical != null) {
+                return canonical;
+            }
+
+            // nothing there, or what was there got collected
+            CanonicalRef mine = new CanonicalRef(key, this);
+            boolean added = (ref == null) ? CANONICAL.putIfAbsent(key, mine) == null : CANONICAL.replace(key, ref, mine);
+
+            if (added) {
+                return this;
+            }
+        }
+    }
+
+    private static void expungeCollected() {
+        CanonicalRef ref;
+
+        while ((ref = (CanonicalRef) COLLECTED.poll()) != null) {
+            // only if it hasn't been replaced already
+            CANONICAL.remove(ref.KEY, ref);
+        }
+    }
+
+    /** Get the number of canonical units made by intern() that are still in use */
+    public static int getCanonicalCount() {
+        expungeCollected();
+
+        return CANONICAL.size();
+    }
+
+
+
 
 
     public double getCoefficient() {
         return COEFF;
     }
 
-    public ArrayList<BaseUnit> getNumeratorTerms(Dimension dim) {
-        return NUMERATOR.get(dim);
+    /** Get the number of distinct BaseUnits in the unit */
+    public int getBaseUnitCount() {
+        return BASES.length;
     }
 
-    public ArrayList<BaseUnit> getNumeratorList() {
-        return (ArrayList<BaseUnit>) NUMERATOR_LIST.clone(); // heck java
+    /**
+     * Get one of the distinct BaseUnits in the unit
+     *
+     * @param i index of the BaseUnit, from 0 to getBaseUnitCount() - 1
+     */
+    public BaseUnit getBaseUnit(int i) {
+        return BASES[i];
     }
 
-    public ArrayList<BaseUnit> getDenominatorTerms(Dimension dim) {
-        return DENOMINATOR.get(dim);
+    /**
+     * Get the power of one of the distinct BaseUnits in the unit
+     *
+     * @param i index of the BaseUnit, from 0 to getBaseUnitCount() - 1
+     */
+    public int getPower(int i) {
+        return POWERS[i];
     }
 
-    public ArrayList<BaseUnit> getDenominatorList() {
-        return (ArrayList<BaseUnit>) DENOMINATOR_LIST.clone(); // heck java
-    }
+    /**
+     * Get the power a BaseUnit is raised to in this unit
+     *
+     * @param bu BaseUnit to look for
+     *
+     * @return power of bu (negative if in the denominator), or 0 if it's not in this unit
+     */
+    public int getPower(BaseUnit bu) {
+        int i = indexOf(BASES, BASES.length, bu);
 
-    public int getDimension(Dimension dim) {
-        return DIMENSIONS.get(dim);
+        return (i == -1) ? 0 : POWERS[i];
     }
 
-    public boolean isCompatible(Unit unit2) {
-        Dimension[] dimList = Dimension.values();
+    public ArrayList<BaseUnit> getNumeratorList() {
+        ArrayList<BaseUnit> list = new ArrayList<BaseUnit>();
+
+        for (int i = 0; i < BASES.length; i++) {
+            for (int j = 0; j < POWERS[i]; j++) {
+                list.add(BASES[i]);
+            }
+        }
 
-        for (int i = 0; i < dimList.length; i++) {
-            Dimension dim = dimList[i];
+        return list;
+    }
+
+    public ArrayList<BaseUnit> getDenominatorList() {
+        ArrayList<BaseUnit> list = new ArrayList<BaseUnit>();
 
-            if (getDimension(dim) != unit2.getDimension(dim)) {
-                return false;
+        for (int i = 0; i < BASES.length; i++) {
+            for (int j = 0; j < -POWERS[i]; j++) {
+                list.add(BASES[i]);
             }
         }
 
-        return true;
+        return list;
+    }
+
+    public int getDimension(Dimension dim) {
+        return getDimension(DIMENSIONS, dim);
+    }
+
+    /**
+     * Get the exponent of every dimension in this unit, packed as signed bytes
+     * in order of Dimension.ordinal()
+     *
+     * @return packed exponent vector
+     */
+    public long getDimensions() {
+        return DIMENSIONS;
+    }
+
+    public boolean isCompatible(Unit unit2) {
+        return DIMENSIONS == unit2.DIMENSIONS;
     }
 
     public boolean isCompatible(BaseUnit bu) {
@@ -362,58 +604,60 @@ public class Unit {
     }
 
     public boolean isCompatible(Dimension dim) {
-        if (NUMERATOR_LIST.size() == 1 && DENOMINATOR_LIST.size() == 0) {
-            return NUMERATOR_LIST.get(0).getDimension() == dim;
+        if (BASES.length == 1 && POWERS[0] == 1) {
+            return BASES[0].getDimension() == dim;
         } else {
             return false;
         }
     }
 
-    public double per(Unit unit2) {
-        if (storeConversions) {
-            Double conv = conversions.get(unit2);
+    /**
+     * Get how many of this unit are in the corresponding standard unit
+     * (the product of BaseUnit standards to the same powers)
+     *
+     * @return amount of this unit per standard unit
+     */
+    public double perStandard() {
+        int version = BaseUnit.getConversionVersion();
+
+        if (perStandardVersion != version) {
+            // COEFF nums/denoms = COEFF / (numsPerStd) * denomsPerStd std
+            double per = 1 / COEFF;
 
-            if (conv != null) {
-                return conv;
+            for (int i = 0; i < BASES.length; i++) {
+                per *= Math.pow(BASES[i].perStandard(), POWERS[i]);
             }
-        }
 
-        if (!isCompatible(unit2)) {
-            return 0; // ig
+            perStandard = per;
+            perStandardVersion = version;
         }
 
-        // x = this unit/that unit
-        // 1 unit = x COEFF nums/denoms = COEFF2 nums2/denoms2
-        // x = COEFF2/COEFF * nums2/nums / (denoms2/denoms)
-        // nums.per(nums2) nums = nums2
-        // nums2/nums = nums.per(nums2)
-
-        double per = unit2.getCoefficient() / COEFF;
+        return perStandard;
+    }
 
-        Dimension[] dimList = Dimension.values();
+    public double per(Unit unit2) {
+        if (unit2 == this) {
+            return 1;
+        }
 
-        for (int i = 0; i < dimList.length; i++) {
-            Dimension dim = dimList[i];
+        if (!isCompatible(unit2)) {
+            return 0; // ig
+        }
 
-            ArrayList<BaseUnit> numTerms = getNumeratorTerms(dim);
-            ArrayList<BaseUnit> numTerms2 = unit2.getNumeratorTerms(dim);
+        ConversionCache cache = ConversionCache.getInstance();
+        double per = cache.get(this, unit2);
 
-            for (int j = 0; j < numTerms.size(); j++) {
-                per *= numTerms.get(j).per(numTerms2.get(j));
-            }
+        if (Double.isNaN(per)) {
+            int version = BaseUnit.getConversionVersion();
 
-            ArrayList<BaseUnit> denomTerms = getDenominatorTerms(dim);
-            ArrayList<BaseUnit> denomTerms2 = unit2.getDenominatorTerms(dim);
+            // x = this unit/that unit
+            // this perStandard units = 1 std = unit2 perStandard2 units2
+            // 1 unit2 = perStandard/perStandard2 units
+            per = perStandard() / unit2.perStandard();
 
-            for (int j = 0; j < denomTerms.size(); j++) {
-                per /= denomTerms.get(j).per(denomTerms2.get(j));
-            }
+            cache.put(this, unit2, per, version);
         }
 
-        if (storeConversions) {
-            conversions.put(unit2, per);
-        }
-        
         return per;
     }
 
@@ -421,14 +665,32 @@ public class Unit {
         return per(bu.getUnit());
     }
 
-    public Unit multiply(Unit unit2) {
-        ArrayList<BaseUnit> numList = NUMERATOR_LIST; // this is a copy
-        ArrayList<BaseUnit> denomList = DENOMINATOR_LIST; // this is also a copy
+    /**
+     * Multiply two units together, raising the second to some power
+     *
+     * @param unit2 unit to multiply by
+     * @param power power to raise unit2 to (-1 to divide)
+     */
+    private Unit combine(Unit unit2, int power) {
+        int count = BASES.length + unit2.BASES.length;
+        BaseUnit[] bases = new BaseUnit[count];
+        int[] powers = new int[count];
+
+        for (int i = 0; i < BASES.length; i++) {
+            bases[i] = BASES[i];
+            powers[i] = POWERS[i];
+        }
 
-        numList.addAll(unit2.getNumeratorList()); // can add whatever without causing problems
-        denomList.addAll(unit2.getDenominatorList()); // can add whatever without causing problems
+        for (int i = 0; i < unit2.BASES.length; i++) {
+            bases[BASES.length + i] = unit2.BASES[i];
+            powers[BASES.length + i] = unit2.POWERS[i] * power;
+        }
 
-        return new Unit(numList, denomList, COEFF * unit2.getCoefficient());
+        return new Unit(bases, powers, count, COEFF * Math.pow(unit2.getCoefficient(), power)).intern();
+    }
+
+    public Unit multiply(Unit unit2) {
+        return combine(unit2, 1);
     }
 
     public Unit multiply(BaseUnit unit2) {
@@ -436,16 +698,28 @@ public class Unit {
     }
 
     public Unit divide(Unit unit2) {
-        ArrayList<BaseUnit> numList = NUMERATOR_LIST; // this is a copy
-        ArrayList<BaseUnit> denomList = DENOMINATOR_LIST; // this is also a copy
-
-        numList.addAll(unit2.getDenominatorList()); // can add whatever without causing problems
-        denomList.addAll(unit2.getNumeratorList()); // can add whatever without causing problems
-
-        return new Unit(numList, denomList, COEFF / unit2.getCoefficient());
+        return combine(unit2, -1);
     }
 
     public Unit divide(BaseUnit unit2) {
         return divide(unit2.getUnit());
     }
-}
\ No newline at end of file
+
+    /**
+     * Raise this unit to an integer power
+     *
+     * @param power power to raise the unit to
+     *
+     * @return this unit to the power
+     */
+    public Unit pow(int power) {
+        BaseUnit[] bases = BASES.clone();
+        int[] powers = new int[POWERS.length];
+
+        for (int i = 0; i < powers.length; i++) {
+            powers[i] = POWERS[i] * power;
+        }
+
+        return new Unit(bases, powers, powers.length, Math.pow(COEFF, power)).intern();
+    }
+}
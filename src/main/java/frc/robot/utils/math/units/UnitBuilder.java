@@ -1,50 +1,105 @@
 package frc.robot.utils.math.units;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 
 public class UnitBuilder {
-    private ArrayList<BaseUnit> nums = new ArrayList<BaseUnit>();
-    private ArrayList<BaseUnit> denoms = new ArrayList<BaseUnit>();
+    /*
+     * BaseUnits with their powers (negative for the denominator). Repeats are
+     * combined when the unit is made.
+     */
+    private BaseUnit[] bases = new BaseUnit[8];
+    private int[] powers = new int[8];
+    private int count = 0;
     private double coeff0 = 1;
     private String name = null;
 
+
+
+    private void add(BaseUnit unit, int power) {
+        if (count == bases.length) {
+            bases = Arrays.copyOf(bases, count * 2);
+            powers = Arrays.copyOf(powers, count * 2);
+        }
+
+        bases[count] = unit;
+        powers[count] = power;
+        count++;
+    }
+
+    private void add(Unit unit, int power) {
+        coeff0 *= Math.pow(unit.getCoefficient(), power);
+
+        for (int i = 0; i < unit.getBaseUnitCount(); i++) {
+            add(unit.getBaseUnit(i), unit.getPower(i) * power);
+        }
+    }
+
+
+
     public UnitBuilder num(BaseUnit... nums) {
-        this.nums.addAll(Arrays.asList(nums));
+        for (int i = 0; i < nums.length; i++) {
+            add(nums[i], 1);
+        }
 
         return this;
     }
-    
+
+    /**
+     * Add a BaseUnit raised to a power to the numerator
+     *
+     * @param num unit to add
+     * @param power power to raise it to
+     */
+    public UnitBuilder num(BaseUnit num, int power) {
+        add(num, power);
+
+        return this;
+    }
+
     public UnitBuilder num(Unit... nums) {
     	for (int i = 0; i < nums.length; i++) {
-    		Unit num = nums[i];
-    		
-    		coeff0 *= num.getCoefficient();
-    		
-    		this.nums.addAll(num.getNumeratorList());
-    		this.denoms.addAll(num.getDenominatorList());
+    		add(nums[i], 1);
     	}
-        
+
+        return this;
+    }
+
+    public UnitBuilder num(Unit num, int power) {
+        add(num, power);
 
         return this;
     }
 
     public UnitBuilder denom(BaseUnit... denoms) {
-    	this.denoms.addAll(Arrays.asList(denoms));
+        for (int i = 0; i < denoms.length; i++) {
+            add(denoms[i], -1);
+        }
+
+        return this;
+    }
+
+    /**
+     * Add a BaseUnit raised to a power to the denominator
+     *
+     * @param denom unit to add
+     * @param power power to raise it to
+     */
+    public UnitBuilder denom(BaseUnit denom, int power) {
+        add(denom, -power);
 
         return this;
     }
-    
+
     public UnitBuilder denom(Unit... denoms) {
     	for (int i = 0; i < denoms.length; i++) {
-    		Unit denom = denoms[i];
-    		
-    		coeff0 /= denom.getCoefficient();
-    		
-    		this.nums.addAll(denom.getDenominatorList());
-    		this.denoms.addAll(denom.getNumeratorList());
+    		add(denoms[i], -1);
     	}
-        
+
+        return this;
+    }
+
+    public UnitBuilder denom(Unit denom, int power) {
+        add(denom, -power);
 
         return this;
     }
@@ -54,14 +109,20 @@ public class UnitBuilder {
 
         return this;
     }
-    
+
     public UnitBuilder name(String name) {
     	this.name = name;
-    	
+
     	return this;
     }
 
+    /**
+     * Make the unit. Units are interned, so making the same unit twice gives
+     * back the same instance.
+     *
+     * @return canonical instance of the built unit
+     */
     public Unit make() {
-        return new Unit(nums, denoms, coeff0, name);
+        return new Unit(bases, powers, count, coeff0, name).intern();
     }
-}
\ No newline at end of file
+}
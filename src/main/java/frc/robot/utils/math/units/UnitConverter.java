@@ -0,0 +1,228 @@
+package frc.robot.utils.math.units;
+
+import java.nio.BufferOverflowException;
+import java.nio.DoubleBuffer;
+import java.util.function.DoubleUnaryOperator;
+
+
+
+/**
+ * Precompiled conversion from one Unit to another. All the unit work (checking
+ * compatibility, figuring out the conversion) happens once when the converter is
+ * made, so converting is just a multiply and doesn't allocate anything.
+ * 
+ * Meant to be made at setup and used in loops.
+ */
+public class UnitConverter implements DoubleUnaryOperator {
+    private final Unit FROM;
+    private final Unit TO;
+    /** amount of TO in one FROM */
+    private final double SCALE;
+
+
+
+    /**
+     * Create a converter between two units
+     * 
+     * @param from unit values are in
+     * @param to unit to convert values to
+     * 
+     * @throws IllegalArgumentException if the units measure different dimensions
+     */
+    public UnitConverter(Unit from, Unit to) {
+        if (!from.isCompatible(to)) {
+            throw new IllegalArgumentException("Cannot convert " + from + " to " + to);
+        }
+
+        FROM = from;
+        TO = to;
+        // x from = x / from.per(to) to
+        SCALE = 1 / from.per(to);
+    }
+
+    public UnitConverter(BaseUnit from, BaseUnit to) {
+        this(from.getUnit(), to.getUnit());
+    }
+
+    public UnitConverter(BaseUnit from, Unit to) {
+        this(from.getUnit(), to);
+    }
+
+    public UnitConverter(Unit from, BaseUnit to) {
+        this(from, to.getUnit());
+    }
+
+
+
+    public Unit getFrom() { return FROM; }
+    public Unit getTo() { return TO; }
+
+    /** @return amount of the "to" unit in one of the "from" unit */
+    public double getScale() { return SCALE; }
+
+
+
+    /**
+     * Convert a value
+     * 
+     * @param value value in the "from" unit
+     * 
+     * @return value in the "to" unit
+     */
+    public double convert(double value) {
+        return value * SCALE;
+    }
+
+    @Override
+    public double applyAsDouble(double value) {
+        return value * SCALE;
+    }
+
+    /**
+     * Convert a value from the "to" unit back to the "from" unit
+     * 
+     * @param value value in the "to" unit
+     * 
+     * @return value in the "from" unit
+     */
+    public double invert(double value) {
+        return value / SCALE;
+    }
+
+    /**
+     * Convert a quantity's value into the "to" unit and store it in a MutableQuantity
+     * 
+     * @param value value in the "from" unit
+     * @param result where to store the converted quantity
+     * 
+     * @return result
+     */
+    public MutableQuantity convert(double value, MutableQuantity result) {
+        return result.set(value * SCALE, TO);
+    }
+
+    /*
+     * Bulk conversions for sample buffers (motor data trials, replayed logs, ...).
+     * One compatibility check when the converter is made and then a single tight
+     * multiply loop, which the JIT can vectorize.
+     */
+    /**
+     * Convert a segment of an array into another array. src and dst may be the same
+     * array (and even overlap if srcOffset >= dstOffset).
+     * 
+     * @param src values in the "from" unit
+     * @param srcOffset index of first value to convert in src
+     * @param dst where to put values in the "to" unit
+     * @param dstOffset index in dst to put the first converted value
+     * @param length number of values to convert
+     */
+    public void convert(double[] src, int srcOffset, double[] dst, int dstOffset, int length) {
+        final double scale = SCALE;
+
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = src[srcOffset + i] * scale;
+        }
+    }
+
+    /**
+     * Convert a segment of an array in place
+     * 
+     * @param data values in the "from" unit, replaced by values in the "to" unit
+     * @param offset index of first value to convert
+     * @param length number of values to convert
+     */
+    public void convert(double[] data, int offset, int length) {
+        convert(data, offset, data, offset, length);
+    }
+
+    /**
+     * Convert a whole array in place
+     * 
+     * @param data values in the "from" unit, replaced by values in the "to" unit
+     */
+    public void convert(double[] data) {
+        convert(data, 0, data, 0, data.length);
+    }
+
+    /**
+     * Convert the remaining values of a buffer in place. The buffer's position
+     * is not changed.
+     * 
+     * @param data values in the "from" unit, replaced by values in the "to" unit
+     */
+    public void convert(DoubleBuffer data) {
+        int pos = data.position();
+        int length = data.remaining();
+
+        if (data.hasArray()) {
+            convert(data.array(), data.arrayOffset() + pos, length);
+        } else {
+            final double scale = SCALE;
+
+            for (int i = pos; i < pos + length; i++) {
+                data.put(i, data.get(i) * scale);
+            }
+        }
+    }
+
+    /**
+     * Convert the remaining values of src into dst, like dst.put(src). Both
+     * buffers' positions are advanced by the number of values converted.
+     * 
+     * @param src values in the "from" unit
+     * @param dst where to put values in the "to" unit
+     * 
+     * @throws BufferOverflowException if dst doesn't have room for src.remaining() values
+     */
+    public void convert(DoubleBuffer src, DoubleBuffer dst) {
+        int length = src.remaining();
+
+        if (dst.remaining() < length) {
+            throw new BufferOverflowException();
+        }
+
+        if (src.hasArray() && dst.hasArray()) {
+            convert(
+                src.array(), src.arrayOffset() + src.position(),
+                dst.array(), dst.arrayOffset() + dst.position(),
+                length
+            );
+
+            src.position(src.position() + length);
+            dst.position(dst.position() + length);
+        } else {
+            final double scale = SCALE;
+
+            for (int i = 0; i < length; i++) {
+                dst.put(src.get() * scale);
+            }
+        }
+    }
+
+    /**
+     * Convert a whole array between two units in place
+     * 
+     * @param data values in from, replaced by values in to
+     * @param from unit values are in
+     * @param to unit to convert to
+     * 
+     * @throws IllegalArgumentException if the units measure different dimensions
+     */
+    public static void convert(double[] data, Unit from, Unit to) {
+        new UnitConverter(from, to).convert(data);
+    }
+
+
+
+    /** Get a converter going the other way */
+    public UnitConverter inverse() {
+        return new UnitConverter(TO, FROM);
+    }
+
+
+
+    @Override
+    public String toString() {
+        return FROM + " -> " + TO + " (x" + SCALE + ")";
+    }
+}
@@ -0,0 +1,325 @@
+package frc.robot.utils.math.units;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+
+/**
+ * Turns strings like "rad/s^2", "ft/100ms" or "kg m^2/s^2" into Units so motor and
+ * motion profile configs can live in files in the deploy directory instead of code.
+ *
+ * Syntax:
+ *  - units are separated by spaces or '*' and multiplied together
+ *  - everything after a '/' is in the denominator: "kg m^2/s^2 A" = (kg m^2)/(s^2 A)
+ *  - '^' raises a unit (or parenthesized group) to an integer power: "s^-1", "(m/s)^2"
+ *  - parentheses group things: "V/(rad/s)"
+ *  - plain numbers are coefficients: "2 ft", "0.1 s", "ft/100 ms"
+ *
+ * Unit symbols are the names of the units in Units ("ft", "100ms", "RPM", "Ω", ...)
+ * as well as the names of the constants themselves ("FT", "MS100", "Ohm", ...). More
+ * can be added with register().
+ *
+ * Parsed units are cached, so parsing the same string again is just a map lookup.
+ * Still, parse while setting things up, not in periodic loops.
+ */
+public class UnitParser {
+    /** symbol -> unit */
+    private static final ConcurrentHashMap<String, Unit> SYMBOLS = new ConcurrentHashMap<String, Unit>();
+    /** characters that can show up in a number */
+    private static final String NUMBER_CHARS = "0123456789.eE+-";
+
+    /** unit expression -> parsed unit */
+    private static final ConcurrentHashMap<String, Unit> CACHE = new ConcurrentHashMap<String, Unit>();
+
+    static {
+        // everything in Units, by constant name and by unit name
+        Field[] fields = Units.class.getFields();
+
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+
+            if (!Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+
+            try {
+                Object value = field.get(null);
+
+                if (value instanceof BaseUnit) {
+                    BaseUnit unit = (BaseUnit) value;
+
+                    SYMBOLS.putIfAbsent(unit.getName(), unit.getUnit());
+                    SYMBOLS.putIfAbsent(field.getName(), unit.getUnit());
+                } else if (value instanceof Unit) {
+                    Unit unit = (Unit) value;
+
+                    SYMBOLS.putIfAbsent(unit.getName(), unit);
+                    SYMBOLS.putIfAbsent(field.getName(), unit);
+                }
+            } catch (IllegalAccessException e) {
+                // public fields, shouldn't happen
+            }
+        }
+
+        // Units.V doesn't have a name
+        SYMBOLS.putIfAbsent("V", Units.V);
+    }
+
+
+
+    /**
+     * Add a symbol for a unit so it can be used in unit expressions
+     *
+     * @param symbol symbol to refer to the unit by
+     * @param unit unit the symbol stands for
+     */
+    public static void register(String symbol, Unit unit) {
+        SYMBOLS.put(symbol, unit);
+
+        // anything parsed with the old meaning of the symbol is now wrong
+        CACHE.clear();
+    }
+
+    public static void register(String symbol, BaseUnit unit) {
+        register(symbol, unit.getUnit());
+    }
+
+
+
+    /**
+     * Parse a unit expression
+     *
+     * @param expression unit expression, like "ft/100ms"
+     *
+     * @return the unit
+     *
+     * @throws IllegalArgumentException if the expression can't be parsed
+     */
+    public static Unit parse(String expression) {
+        Unit unit = CACHE.get(expression);
+
+        if (unit != null) {
+            return unit;
+        }
+
+        String trimmed = expression.trim();
+
+        // plain symbols keep their name (RPM stays RPM)
+        unit = SYMBOLS.get(trimmed);
+
+        if (unit == null) {
+            Parser parser = new Parser(trimmed);
+            UnitBuilder builder = new UnitBuilder();
+
+            parser.parseProduct(builder, false);
+
+            if (parser.pos != trimmed.length()) {
+                throw parser.error("Unexpected '" + trimmed.charAt(parser.pos) + "'");
+            }
+
+            unit = builder.make();
+        }
+
+        CACHE.put(expression, unit);
+
+        return unit;
+    }
+
+    /**
+     * Parse a quantity: a number followed by a unit expression, like "2 in" or "3.5 ft/s"
+     *
+     * @param expression quantity expression
+     *
+     * @return the quantity
+     *
+     * @throws IllegalArgumentException if the expression can't be parsed
+     */
+    public static Quantity parseQuantity(String expression) {
+        String trimmed = expression.trim();
+        int split = 0;
+
+        // longest prefix that's a number
+        while (split < trimmed.length() && NUMBER_CHARS.indexOf(trimmed.charAt(split)) != -1) {
+            split++;
+        }
+
+        double value;
+        try {
+            value = Double.parseDouble(trimmed.substring(0, split));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Expected a number at the start of '" + expression + "'");
+        }
+
+        return new Quantity(value, parse(trimmed.substring(split)));
+    }
+
+    /** Get the number of unit expressions remembered */
+    public static int getCacheSize() {
+        return CACHE.size();
+    }
+
+
+
+
+
+    /** Recursive descent parser over one expression */
+    private static class Parser {
+        private static final String SPECIAL = " \t*/()^";
+
+        private final String EXPR;
+        private int pos = 0;
+
+
+
+        private Parser(String expr) {
+            EXPR = expr;
+        }
+
+
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at " + pos + " in unit expression '" + EXPR + "'");
+        }
+
+        private void skipSeparators() {
+            while (pos < EXPR.length()) {
+                char c = EXPR.charAt(pos);
+
+                if (c == ' ' || c == '\t' || c == '*') {
+                    pos++;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Parse factors until the end of the expression or a ')'
+         *
+         * @param builder builder to add the factors to
+         * @param inverted whether this whole product is in a denominator
+         */
+        private void parseProduct(UnitBuilder builder, boolean inverted) {
+            boolean denom = false;
+
+            while (true) {
+                skipSeparators();
+
+                if (pos == EXPR.length() || EXPR.charAt(pos) == ')') {
+                    return;
+                }
+
+                if (EXPR.charAt(pos) == '/') {
+                    // everything from here on is in the denominator
+                    denom = true;
+                    pos++;
+
+                    continue;
+                }
+
+                parseFactor(builder, inverted != denom);
+            }
+        }
+
+        /**
+         * Parse a unit, number or parenthesized group with an optional power
+         *
+         * @param builder builder to add the factor to
+         * @param inverted whether the factor is in a denominator
+         */
+        private void parseFactor(UnitBuilder builder, boolean inverted) {
+            Unit unit;
+            double coeff = 1;
+
+            if (EXPR.charAt(pos) == '(') {
+                pos++;
+
+                UnitBuilder group = new UnitBuilder();
+                parseProduct(group, false);
+
+                if (pos == EXPR.length()) {
+                    throw error("Missing ')'");
+                }
+                pos++;
+
+                unit = group.make();
+            } else {
+                int start = pos;
+
+                while (pos < EXPR.length() && SPECIAL.indexOf(EXPR.charAt(pos)) == -1) {
+                    pos++;
+                }
+
+                if (start == pos) {
+                    throw error("Expected a unit");
+                }
+
+                String token = EXPR.substring(start, pos);
+                unit = SYMBOLS.get(token);
+
+                if (unit == null) {
+                    // either a plain number or a number stuck onto a unit ("2ft")
+                    int split = 0;
+                    while (split < token.length() && NUMBER_CHARS.indexOf(token.charAt(split)) != -1) {
+                        split++;
+                    }
+
+                    try {
+                        coeff = Double.parseDouble(token.substring(0, split));
+                    } catch (NumberFormatException e) {
+                        throw error("Unknown unit '" + token + "'");
+                    }
+
+                    if (split < token.length()) {
+                        unit = SYMBOLS.get(token.substring(split));
+
+                        if (unit == null) {
+                            throw error("Unknown unit '" + token.substring(split) + "'");
+                        }
+                    }
+                }
+            }
+
+            int power = 1;
+
+            if (pos < EXPR.length() && EXPR.charAt(pos) == '^') {
+                pos++;
+
+                int start = pos;
+                if (pos < EXPR.length() && (EXPR.charAt(pos) == '-' || EXPR.charAt(pos) == '+')) {
+                    pos++;
+                }
+                while (pos < EXPR.length() && Character.isDigit(EXPR.charAt(pos))) {
+                    pos++;
+                }
+
+                try {
+                    power = Integer.parseInt(EXPR.substring(start, pos));
+                } catch (NumberFormatException e) {
+                    throw error("Expected an integer power");
+                }
+            }
+
+            if (power < 0) {
+                inverted = !inverted;
+                power = -power;
+            }
+
+            if (inverted) {
+                builder.coeff(Math.pow(coeff, -power));
+
+                if (unit != null) {
+                    builder.denom(unit, power);
+                }
+            } else {
+                builder.coeff(Math.pow(coeff, power));
+
+                if (unit != null) {
+                    builder.num(unit, power);
+                }
+            }
+        }
+    }
+}
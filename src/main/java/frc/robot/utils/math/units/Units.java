@@ -41,7 +41,7 @@ public class Units {
     public static final Unit IN_PER_S2 = IN_PER_S.divide(S);
     public static final Unit FT_PER_S2 = FT_PER_S.divide(S);
     public static final Unit M_PER_S2  = M_PER_S.divide(S);
-    public static final Unit G_ACC     = (new UnitBuilder()).num(M).denom(S, S).coeff(9.80665).name("g's").make();
+    public static final Unit G_ACC     = (new UnitBuilder()).num(M).denom(S, 2).coeff(9.80665).name("g's").make();
 
     // Angular velocity
     public static final Unit RAD_PER_S = RAD.divide(S);
@@ -57,7 +57,7 @@ public class Units {
     public static final Unit REV_PER_MIN2  = RPM.divide(MIN);
 
     // energy
-    public static final Unit J = (new UnitBuilder()).num(KG, M, M).denom(S, S).name("J").make();
+    public static final Unit J = (new UnitBuilder()).num(KG).num(M, 2).denom(S, 2).name("J").make();
 
     // torque
     public static final Unit Nm = new Unit(J, 1, "Nm"); // shhhhh
@@ -66,7 +66,7 @@ public class Units {
     public static final Unit GB = (new UnitBuilder()).num(KG, M).denom(S).name("gb").make(); // 1 greenberg = 1 kgm/s
     
     // Force
-    public static final Unit N = (new UnitBuilder()).num(Units.KG, Units.M).denom(Units.S, Units.S).name("N").make();
+    public static final Unit N = (new UnitBuilder()).num(KG, M).denom(S, 2).name("N").make();
 
     // Current
     public static final BaseUnit A = new BaseUnit(Dimension.Current, 1, "A");
@@ -75,7 +75,7 @@ public class Units {
     public static final Unit C = (new UnitBuilder()).num(A, S).name("C").make();
 
     // Voltage
-    public static final Unit V = (new UnitBuilder()).num(KG, M, M).denom(S, S, S, A).make();
+    public static final Unit V = (new UnitBuilder()).num(KG).num(M, 2).denom(S, 3).denom(A).make();
     public static final Unit CTRE_VOLTAGE = new Unit(V, 12.2/1023.0, "CTRE Voltage"); // 1023 voltage units = 12.2V approx
 
     // Resistance
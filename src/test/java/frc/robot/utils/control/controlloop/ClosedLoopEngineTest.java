@@ -0,0 +1,123 @@
+package frc.robot.utils.control.controlloop;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.BBSimMotorController;
+import frc.robot.utils.control.motor.SensorPoller;
+import frc.robot.utils.control.pidf.PID;
+import frc.robot.utils.control.pidf.PIDF;
+import frc.robot.utils.control.statespace.models.motors.Motor;
+
+
+
+public class ClosedLoopEngineTest {
+    private static final double DT = 0.001;
+
+
+
+    private static BBSimMotorController makeMotor(int deviceID) {
+        BBSimMotorController motor = new BBSimMotorController(deviceID, Motor.CIM);
+        motor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+
+        return motor;
+    }
+
+    /** Run the engine and the sims together */
+    private static void step(ClosedLoopEngine engine, double time, BBSimMotorController... motors) {
+        for (int i = 0; i < Math.round(time / DT); i++) {
+            engine.runCycle(DT);
+
+            for (BBSimMotorController motor : motors) {
+                motor.update(DT);
+            }
+        }
+    }
+
+
+
+    @Test
+    public void reachesVelocity() {
+        BBSimMotorController motor = makeMotor(1);
+        ClosedLoopEngine engine = new ClosedLoopEngine();
+
+        // kF in V/(rad/s), about the CIM's back EMF constant
+        PIDF gains = new PIDF(0.05, 0.5, 0, 12.0 / 558, 50);
+        gains.inPreferredUnits();
+
+        ClosedLoopEngine.Loop loop = engine.add(motor, gains, ControlType.Variable.Velocity);
+        loop.setSetpoint(300);
+
+        step(engine, 1, motor);
+
+        assertEquals(300, motor.getVelocity(), 3);
+        assertEquals(motor.getVelocity(), loop.getMeasurement(), 0);
+        assertEquals(1000, engine.getCycles());
+    }
+
+    @Test
+    public void settlesOnPosition() {
+        BBSimMotorController motor = makeMotor(1);
+        ClosedLoopEngine engine = new ClosedLoopEngine();
+
+        ClosedLoopEngine.Loop loop = engine.add(motor, new PID(0.3, 0, 0.01), ControlType.Variable.Position);
+        loop.setSetpoint(20);
+
+        step(engine, 2, motor);
+
+        assertEquals(20, motor.getPosition(), 0.05);
+        assertEquals(0, motor.getVelocity(), 0.5);
+    }
+
+    @Test
+    public void settlesOnPositionWithSlowMeasurements() {
+        BBSimMotorController motor = makeMotor(1);
+        ClosedLoopEngine engine = new ClosedLoopEngine();
+
+        // new readings every 10 ms, like the Feedback status frame
+        SensorPoller poller = new SensorPoller();
+        poller.register(motor);
+
+        ClosedLoopEngine.Loop loop = engine.add(motor, new PID(0.3, 0, 0.01), ControlType.Variable.Position);
+        loop.setSetpoint(20);
+
+        double maxDerivative = 0;
+
+        for (int i = 0; i < 2000; i++) {
+            if (i % 10 == 0) {
+                poller.pollAll();
+            }
+
+            engine.runCycle(DT);
+            motor.update(DT);
+
+            maxDerivative = Math.max(maxDerivative, Math.abs(loop.getController().getDerivative()));
+        }
+
+        assertEquals(20, motor.getPosition(), 0.05);
+        // the error can't change faster than the motor's free speed (~560 rad/s)
+        assertTrue("derivative spiked to " + maxDerivative, maxDerivative < 600);
+    }
+
+    @Test
+    public void disablingStopsTheMotor() {
+        BBSimMotorController motor = makeMotor(1);
+        ClosedLoopEngine engine = new ClosedLoopEngine();
+
+        ClosedLoopEngine.Loop loop = engine.add(motor, new PID(0.3, 0, 0), ControlType.Variable.Position);
+        loop.setSetpoint(20);
+
+        step(engine, 0.1, motor);
+        assertTrue(motor.getPercentVoltage() != 0);
+
+        loop.disable();
+        step(engine, 0.01, motor);
+
+        motor.refreshSensors();
+        assertEquals(0, motor.getPercentVoltage(), 0);
+    }
+}
@@ -0,0 +1,63 @@
+package frc.robot.utils.control.controlloop;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import frc.robot.utils.control.pidf.PID;
+
+
+
+public class PIDFControllerTest {
+    private static final double DT = 0.001;
+
+
+
+    @Test
+    public void derivativeIsTakenAcrossFreshMeasurements() {
+        PIDFController controller = new PIDFController(new PID(0, 0, 0.001));
+
+        controller.calculate(0, 0, DT, true);
+
+        // same measurement for 9 more runs, like a 10 ms status frame read at 1 kHz
+        for (int i = 0; i < 9; i++) {
+            controller.calculate(0, 0, DT, false);
+            assertEquals(0, controller.getDerivative(), 0);
+        }
+
+        // error went up by 1 over 10 ms, not over 1 ms
+        assertEquals(0.1, controller.calculate(0, -1, DT, true), 1e-9);
+        assertEquals(100, controller.getDerivative(), 1e-9);
+
+        // held until the next new measurement
+        for (int i = 0; i < 9; i++) {
+            assertEquals(0.1, controller.calculate(0, -1, DT, false), 1e-9);
+        }
+
+        controller.calculate(0, -1, DT, true);
+        assertEquals(0, controller.getDerivative(), 1e-9);
+    }
+
+    @Test
+    public void everyMeasurementIsFreshByDefault() {
+        PIDFController controller = new PIDFController(new PID(0, 0, 0.0001));
+
+        controller.calculate(0, 0, DT);
+
+        assertEquals(0.1, controller.calculate(0, -1, DT), 1e-9);
+        assertEquals(1000, controller.getDerivative(), 1e-9);
+    }
+
+    @Test
+    public void resetForgetsTheDerivative() {
+        PIDFController controller = new PIDFController(new PID(0, 0, 1));
+
+        controller.calculate(0, 0, DT, true);
+        controller.calculate(0, -1, DT, true);
+
+        controller.reset();
+
+        assertEquals(0, controller.calculate(0, -1, DT, false), 0);
+        assertEquals(0, controller.getDerivative(), 0);
+    }
+}
@@ -0,0 +1,229 @@
+package frc.robot.utils.control.motor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import frc.robot.utils.control.MotionConfig;
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.slots.SlotEvictionPolicy;
+import frc.robot.utils.control.pidf.PID;
+import frc.robot.utils.control.pidf.PIDF;
+import frc.robot.utils.control.statespace.models.motors.Motor;
+
+
+
+public class ConfigWriterTest {
+    /** how long each config call takes, long enough that a load is still going when checked */
+    private static final double CONFIG_DELAY = 0.05;
+
+    private BBSimMotorController motor;
+    private ConfigWriter writer;
+
+    // velocity in slot 0, position in slot 1, motion magic not loaded (sim has 2 slots)
+    private MotionConfigHandle velocity;
+    private MotionConfigHandle position;
+    private MotionConfigHandle motionMagic;
+
+
+
+    @Before
+    public void setup() {
+        motor = new BBSimMotorController(1, Motor.CIM);
+        motor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+
+        velocity = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.5, 0, 0, 0.1)).controller(ControlType.Velocity)
+        ));
+        position = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.5, 0, 0, 0)).controller(ControlType.Position)
+        ));
+        motionMagic = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(1, 0, 0, 0)).controller(ControlType.MotionMagic)
+        ));
+
+        writer = new ConfigWriter();
+    }
+
+    @After
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+
+
+    @Test
+    public void oldSlotStaysSelectedUntilLoadIsCommitted() throws Exception {
+        motor.cmdVelocity(10, velocity);
+        assertEquals(0, motor.getSelectedSlot());
+
+        motor.setConfigDelay(CONFIG_DELAY);
+        motor.setConfigWriter(writer);
+
+        // starts loading into slot 1 in the background, slot 0 stays selected
+        assertEquals(0, motor.setMotionConfig(motionMagic));
+        assertTrue(motor.isLoadPending());
+        assertFalse(motionMagic.isLoaded());
+        assertFalse(position.isLoaded());
+
+        CompletableFuture<Void> load = motor.getPendingLoad();
+        assertNotNull(load);
+        assertFalse(load.isDone());
+
+        // still commanding with the old slot while it loads
+        long forwarded = motor.getForwardedCommands();
+        motor.cmdVelocity(20, velocity);
+        assertEquals(forwarded + 1, motor.getForwardedCommands());
+        assertEquals(0, motor.getSelectedSlot());
+
+        load.get(5, TimeUnit.SECONDS);
+        assertFalse(load.isCompletedExceptionally());
+
+        // written, but not in use until the next setMotionConfig
+        assertTrue(motor.isLoadPending());
+        assertFalse(motionMagic.isLoaded());
+        assertEquals(0, motor.getSelectedSlot());
+
+        assertEquals(1, motor.setMotionConfig(motionMagic));
+        assertFalse(motor.isLoadPending());
+        assertEquals(1, motionMagic.getSlot());
+        assertEquals(1, motor.getSelectedSlot());
+        assertEquals(0, velocity.getSlot());
+        assertEquals(1, writer.getWrites());
+    }
+
+    @Test
+    public void nothingIsCommandedBeforeASlotIsSelected() throws Exception {
+        motor.setConfigDelay(CONFIG_DELAY);
+        motor.setConfigWriter(writer);
+
+        // nothing selected yet, so there's no slot to keep using while it loads
+        assertEquals(-1, motor.setMotionConfig(motionMagic));
+
+        motor.cmdPosition(5, ControlType.MotionMagic, motionMagic);
+        assertEquals(0, motor.getForwardedCommands());
+
+        motor.getPendingLoad().get(5, TimeUnit.SECONDS);
+
+        motor.cmdPosition(5, ControlType.MotionMagic, motionMagic);
+        assertEquals(1, motor.getForwardedCommands());
+        assertEquals(motionMagic.getSlot(), motor.getSelectedSlot());
+    }
+
+    @Test
+    public void selectedSlotIsLoadedRightAwayIfItsTheOnlyChoice() {
+        // won't give up any slot, so the selected one is all that's left
+        motor.setSlotEvictionPolicy(new SlotEvictionPolicy() {
+            @Override
+            public void init(int slots) {}
+            @Override
+            public void onLoad(int slot, int configID, long time) {}
+            @Override
+            public void onUse(int slot, long time) {}
+            @Override
+            public int chooseSlot(int[] loadedConfigs, boolean[] evictable, long time) { return -1; }
+        });
+
+        motor.cmdVelocity(10, velocity);
+        motor.setConfigWriter(writer);
+
+        assertEquals(0, motor.setMotionConfig(motionMagic));
+        assertFalse(motor.isLoadPending());
+        assertEquals(0, motionMagic.getSlot());
+        assertFalse(velocity.isLoaded());
+        assertEquals(0, writer.getWrites());
+    }
+
+    @Test
+    public void unitChangeWhileLoadingRewritesTheSlot() throws Exception {
+        // position gains in preferred units scale with the radius when measuring distance
+        motor.setMeasurementToDistance(0.1);
+
+        PID gains = new PIDF(1, 0, 0, 0).inPreferredUnits();
+        MotionConfigHandle preferred = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(gains).controller(ControlType.Position)
+        ));
+
+        motor.cmdVelocity(10, velocity);
+
+        motor.setConfigDelay(CONFIG_DELAY);
+        motor.setConfigWriter(writer);
+
+        assertEquals(0, motor.setMotionConfig(preferred));
+        assertTrue(motor.isLoadPending());
+        double oldKP = gains.toNative(motor.getGainScale(ControlType.Position)).getKP();
+
+        // what's being written was worked out with the old radius
+        motor.setMeasurementToDistance(0.2);
+        double newKP = gains.toNative(motor.getGainScale(ControlType.Position)).getKP();
+        assertNotEquals(oldKP, newKP, 1e-9);
+
+        motor.getPendingLoad().get(5, TimeUnit.SECONDS);
+        assertEquals(1, motor.setMotionConfig(preferred));
+        assertEquals(newKP, motor.getKP(1), 1e-9);
+    }
+
+    @Test
+    public void reloadsAfterAUnitChangeGoThroughTheWriter() throws Exception {
+        motor.setMeasurementToDistance(0.1);
+
+        PID gains = new PIDF(1, 0, 0, 0).inPreferredUnits();
+        MotionConfigHandle preferred = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(gains).controller(ControlType.Position)
+        ));
+
+        // loaded right away, no writer yet
+        int slot = motor.setMotionConfig(preferred);
+
+        motor.setConfigDelay(CONFIG_DELAY);
+        motor.setConfigWriter(writer);
+
+        long start = System.nanoTime();
+        motor.setMeasurementToDistance(0.2);
+        double newKP = gains.toNative(motor.getGainScale(ControlType.Position)).getKP();
+
+        // didn't wait on the config calls, and nothing uses the slot until it's written
+        assertTrue(System.nanoTime() - start < CONFIG_DELAY * 1e9);
+        assertTrue(motor.isReloadPending());
+        assertFalse(preferred.isLoaded());
+        assertEquals(slot, motor.setMotionConfig(preferred));
+        assertFalse(preferred.isLoaded());
+
+        writer.flush();
+
+        assertEquals(slot, motor.setMotionConfig(preferred));
+        assertFalse(motor.isReloadPending());
+        assertEquals(slot, preferred.getSlot());
+        assertEquals(newKP, motor.getKP(slot), 1e-9);
+        assertEquals(1, writer.getWrites());
+    }
+
+    @Test(timeout = 5000)
+    public void errorsFailTheirWriteWithoutStoppingTheWriter() throws Exception {
+        CompletableFuture<Void> failed = writer.submit(motor, () -> {
+            throw new AssertionError("vendor library blew up");
+        });
+        CompletableFuture<Void> after = writer.submit(motor, () -> {});
+
+        writer.flush();
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertTrue(after.isDone());
+        assertFalse(after.isCompletedExceptionally());
+        assertEquals(1, writer.getFailures());
+
+        // still taking writes
+        writer.submit(motor, () -> {}).get(1, TimeUnit.SECONDS);
+        assertEquals(3, writer.getWrites());
+    }
+}
@@ -0,0 +1,88 @@
+package frc.robot.utils.control.motor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.robot.utils.control.MotorInfo;
+
+
+
+public class MotorDiagnosticsTest {
+    @Test
+    public void copyIsOldestFirst() {
+        MotorDiagnostics diagnostics = new MotorDiagnostics(4);
+
+        for (int n = 1; n <= 6; n++) {
+            diagnostics.add(n, n, n, n, n, n);
+        }
+
+        assertEquals(4, diagnostics.size());
+        assertEquals(6, diagnostics.getAdded());
+        assertEquals(6, diagnostics.getLastTimestamp());
+
+        // smaller copy just gets the newest
+        MotorDiagnostics copy = new MotorDiagnostics(3);
+        assertEquals(3, diagnostics.copyTo(copy));
+
+        MotorInfo info = new MotorInfo();
+        for (int i = 0; i < 3; i++) {
+            assertTrue(copy.get(i, info));
+            assertEquals(4 + i, info.getTimestamp());
+        }
+        assertFalse(copy.get(3, info));
+    }
+
+    /**
+     * Copies over and over while another thread fills a small buffer as fast as it can,
+     * so readings are constantly overwritten mid-copy. Every value of a reading is
+     * its number, so a reading mixed up with another (or half overwritten) shows.
+     */
+    @Test(timeout = 10000)
+    public void copiesAreConsistentWhileAdding() throws InterruptedException {
+        final MotorDiagnostics diagnostics = new MotorDiagnostics(8);
+        final long readings = 20_000_000;
+
+        Thread writer = new Thread(() -> {
+            for (long n = 1; n <= readings; n++) {
+                diagnostics.add(n, n, n, n, n, n);
+            }
+        });
+        writer.start();
+
+        MotorDiagnostics copy = new MotorDiagnostics(8);
+        MotorInfo info = new MotorInfo();
+        long copies = 0;
+        long lastNewest = 0;
+
+        while (writer.isAlive() || copies == 0) {
+            int copied = diagnostics.copyTo(copy);
+            copies++;
+
+            for (int i = 0; i < copied; i++) {
+                assertTrue(copy.get(i, info));
+
+                long n = info.getTimestamp();
+
+                assertEquals(n, info.getPosition_nu(), 0);
+                assertEquals(n, info.getVelocity_nu(), 0);
+                assertEquals(n, info.getCurrent(), 0);
+                assertEquals(n, info.getVoltage(), 0);
+                assertEquals(n, info.getPercentVoltage(), 0);
+
+                // no gaps or repeats in what's left
+                if (i > 0) {
+                    assertEquals(lastNewest + 1, n);
+                }
+                lastNewest = n;
+            }
+        }
+
+        writer.join();
+
+        assertTrue(copies > 1);
+        assertEquals(readings, diagnostics.getAdded());
+    }
+}
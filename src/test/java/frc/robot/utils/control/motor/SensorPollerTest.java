@@ -0,0 +1,143 @@
+package frc.robot.utils.control.motor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.statespace.models.motors.Motor;
+
+
+
+public class SensorPollerTest {
+    private static BBSimMotorController makeMotor() {
+        BBSimMotorController motor = new BBSimMotorController(1, Motor.CIM);
+        motor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+
+        return motor;
+    }
+
+    /**
+     * Sim whose every sensor reads back how many times it's been read, so readings
+     * from two different reads can't be mixed up without it showing
+     */
+    private static class CountingMotor extends BBSimMotorController {
+        private long reads = 0;
+
+        CountingMotor() {
+            super(1, Motor.CIM);
+
+            // position and velocity are only read with a sensor
+            addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+        }
+
+        // readSensors() reads the position first
+        @Override
+        protected double readPosition_nu() { return ++reads; }
+        @Override
+        protected double readVelocity_nu() { return reads; }
+        @Override
+        protected double readVoltage() { return reads; }
+        @Override
+        protected double readPercentVoltage() { return reads; }
+        @Override
+        protected double readCurrent() { return reads; }
+    }
+
+
+
+    @Test
+    public void refreshTakesTheLatestPoll() throws InterruptedException {
+        BBSimMotorController motor = makeMotor();
+        SensorPoller poller = new SensorPoller();
+
+        poller.register(motor);
+        assertEquals(1, poller.getMotorCount());
+
+        motor.cmdPercent(1);
+
+        SensorSnapshot polled = new SensorSnapshot();
+        long lastTimestamp = 0;
+        double lastPosition = Double.NEGATIVE_INFINITY;
+
+        for (int i = 0; i < 10; i++) {
+            motor.update(0.01);
+            // make sure nanoTime moves on between polls
+            Thread.sleep(1);
+            poller.pollAll();
+
+            motor.refreshSensors();
+            SensorSnapshot snapshot = motor.getSnapshot();
+
+            assertTrue(SensorPoller.read(motor, polled));
+            assertEquals(polled.getTimestamp(), snapshot.getTimestamp());
+            assertEquals(polled.getPosition_nu(), snapshot.getPosition_nu(), 0);
+            assertEquals(polled.getVelocity_nu(), snapshot.getVelocity_nu(), 0);
+
+            assertTrue(snapshot.getTimestamp() > lastTimestamp);
+            assertTrue(snapshot.getPosition_nu() > lastPosition);
+            assertEquals(1, snapshot.getPercentVoltage(), 0);
+
+            lastTimestamp = snapshot.getTimestamp();
+            lastPosition = snapshot.getPosition_nu();
+        }
+
+        // no poll since the last refresh, so the same readings again
+        motor.update(0.01);
+        motor.refreshSensors();
+        assertEquals(lastTimestamp, motor.getSnapshot().getTimestamp());
+        assertEquals(lastPosition, motor.getSnapshot().getPosition_nu(), 0);
+
+        // back to reading the motor controller itself
+        poller.unregister(motor);
+        assertFalse(SensorPoller.read(motor, polled));
+
+        motor.refreshSensors();
+        assertTrue(motor.getSnapshot().getTimestamp() > lastTimestamp);
+        assertTrue(motor.getSnapshot().getPosition_nu() > lastPosition);
+    }
+
+    @Test
+    public void snapshotsAreConsistentWhilePolling() {
+        CountingMotor motor = new CountingMotor();
+        SensorPoller poller = new SensorPoller(0.0001);
+
+        poller.register(motor);
+        poller.start();
+
+        try {
+            long lastTimestamp = 0;
+            double lastReads = 0;
+            long end = System.nanoTime() + 5_000_000_000L;
+
+            // until the poller's gone through a good number of polls (or it's clearly stuck)
+            while (lastReads < 2000 && System.nanoTime() < end) {
+                motor.refreshSensors();
+                SensorSnapshot snapshot = motor.getSnapshot();
+
+                double reads = snapshot.getPosition_nu();
+
+                // everything from the same poll
+                assertEquals(reads, snapshot.getVelocity_nu(), 0);
+                assertEquals(reads, snapshot.getVoltage(), 0);
+                assertEquals(reads, snapshot.getPercentVoltage(), 0);
+                assertEquals(reads, snapshot.getCurrent(), 0);
+
+                // never going back to an older poll
+                assertTrue(reads >= lastReads);
+                assertTrue(snapshot.getTimestamp() >= lastTimestamp);
+
+                lastReads = reads;
+                lastTimestamp = snapshot.getTimestamp();
+            }
+
+            assertTrue("poller didn't advance", lastReads >= 2000);
+        } finally {
+            poller.stop();
+        }
+
+        assertFalse(poller.isRunning());
+    }
+}
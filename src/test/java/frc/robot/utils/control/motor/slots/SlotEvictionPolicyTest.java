@@ -0,0 +1,147 @@
+package frc.robot.utils.control.motor.slots;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import frc.robot.utils.control.MotionConfig;
+import frc.robot.utils.control.controltype.ControlType;
+import frc.robot.utils.control.encoder.QuadratureEncoder;
+import frc.robot.utils.control.motor.BBSimMotorController;
+import frc.robot.utils.control.motor.MotionConfigHandle;
+import frc.robot.utils.control.pidf.PIDF;
+import frc.robot.utils.control.statespace.models.motors.Motor;
+
+
+
+public class SlotEvictionPolicyTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    private static final boolean[] BOTH = {true, true};
+
+
+
+    @Test
+    public void agedUsesLoseToRecentOnes() {
+        LFUEvictionPolicy plain = new LFUEvictionPolicy();
+        LFUEvictionPolicy aged = new LFUEvictionPolicy(1);
+
+        for (SlotEvictionPolicy policy : new SlotEvictionPolicy[] {plain, aged}) {
+            policy.init(2);
+
+            // slot 0 used a ton early on, slot 1 a little just now
+            policy.onLoad(0, 0, 0);
+            policy.onLoad(1, 1, 0);
+
+            for (int i = 0; i < 10; i++) {
+                policy.onUse(0, i * SECOND / 100);
+            }
+            for (int i = 0; i < 3; i++) {
+                policy.onUse(1, 9 * SECOND + i * SECOND / 100);
+            }
+        }
+
+        int[] loaded = {0, 1};
+
+        assertEquals(1, plain.chooseSlot(loaded, BOTH, 10 * SECOND));
+        assertEquals(0, aged.chooseSlot(loaded, BOTH, 10 * SECOND));
+    }
+
+    @Test
+    public void usesOutsideTheWindowDontCount() {
+        WindowedFrequencyEvictionPolicy policy = new WindowedFrequencyEvictionPolicy(1);
+        policy.init(2);
+
+        policy.onLoad(0, 0, 0);
+        policy.onLoad(1, 1, 0);
+
+        for (int i = 0; i < 10; i++) {
+            policy.onUse(0, SECOND / 100);
+        }
+        policy.onUse(1, 3 * SECOND / 2);
+        policy.onUse(1, 3 * SECOND / 2);
+
+        int[] loaded = {0, 1};
+
+        // slot 0's uses still in the window
+        assertEquals(1, policy.chooseSlot(loaded, BOTH, SECOND / 2));
+        // and now they're not
+        assertEquals(0, policy.chooseSlot(loaded, BOTH, 8 * SECOND / 5));
+    }
+
+    @Test
+    public void pinsAreIgnoredIfEverySlotIsPinned() {
+        PinnedEvictionPolicy policy = new PinnedEvictionPolicy(new LRUEvictionPolicy(), 5, 7);
+        policy.init(2);
+
+        policy.onLoad(0, 5, 1);
+        policy.onLoad(1, 3, 2);
+
+        // slot 0 was used longest ago, but it's pinned
+        assertEquals(1, policy.chooseSlot(new int[] {5, 3}, BOTH, 3));
+        // the only slot that can be chosen is pinned
+        assertEquals(0, policy.chooseSlot(new int[] {5, 3}, new boolean[] {true, false}, 3));
+        // every slot is pinned
+        assertEquals(0, policy.chooseSlot(new int[] {5, 7}, BOTH, 3));
+    }
+
+    @Test
+    public void lruTiesGoToTheHighestSlot() {
+        LRUEvictionPolicy policy = new LRUEvictionPolicy();
+        policy.init(3);
+
+        for (int i = 0; i < 3; i++) {
+            policy.onLoad(i, i, 100);
+        }
+
+        int[] loaded = {0, 1, 2};
+
+        assertEquals(2, policy.chooseSlot(loaded, new boolean[] {true, true, true}, 200));
+        assertEquals(1, policy.chooseSlot(loaded, new boolean[] {true, true, false}, 200));
+
+        policy.onUse(1, 150);
+        assertEquals(0, policy.chooseSlot(loaded, new boolean[] {true, true, false}, 200));
+    }
+
+
+
+    @Test
+    public void slotStatisticsCountHitsMissesAndEvictions() {
+        BBSimMotorController motor = new BBSimMotorController(1, Motor.CIM);
+        motor.addEncoder(new QuadratureEncoder(QuadratureEncoder.EncoderType.AMT));
+
+        // the sim has 2 slots, so the first two are loaded right away
+        MotionConfigHandle velocity = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.5, 0, 0, 0.1)).controller(ControlType.Velocity)
+        ));
+        MotionConfigHandle position = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(0.5, 0, 0, 0)).controller(ControlType.Position)
+        ));
+        MotionConfigHandle motionMagic = motor.getMotionConfigHandle(motor.addMotionConfiguration(
+            (new MotionConfig()).pid(new PIDF(1, 0, 0, 0)).controller(ControlType.MotionMagic)
+        ));
+
+        motor.resetSlotStatistics();
+
+        // velocity is used all the time, so it keeps its slot
+        motor.setSlotEvictionPolicy(new PinnedEvictionPolicy(new LRUEvictionPolicy(), velocity.getID()));
+
+        motor.setMotionConfig(velocity);
+        motor.setMotionConfig(position);
+        motor.setMotionConfig(velocity);
+        assertEquals(3, motor.getSlotHits());
+        assertEquals(0, motor.getSlotMisses());
+
+        // goes over position
+        motor.setMotionConfig(motionMagic);
+        motor.setMotionConfig(velocity);
+        motor.setMotionConfig(position);
+
+        assertEquals(4, motor.getSlotHits());
+        assertEquals(2, motor.getSlotMisses());
+        assertEquals(2, motor.getSlotEvictions());
+        assertEquals(0, velocity.getSlot());
+        assertEquals(1, position.getSlot());
+        assertEquals(-1, motionMagic.getSlot());
+    }
+}
@@ -0,0 +1,176 @@
+package frc.robot.utils.control.motor.status;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+
+import org.junit.Test;
+
+
+
+public class StatusFrameManagerTest {
+    /** Talon-ish device that just remembers every period it's told */
+    private static class RecordingSink implements StatusFrameSink {
+        private final EnumMap<StatusFrame, Integer> PERIODS = new EnumMap<StatusFrame, Integer>(StatusFrame.class);
+        private final ArrayList<String> CALLS = new ArrayList<String>();
+
+        @Override
+        public StatusFrame getStatusFrame(StatusSignal signal) {
+            switch (signal) {
+                case Position:
+                case Velocity:
+                case Current: {
+                    return StatusFrame.Feedback;
+                }
+                case Voltage: {
+                    return StatusFrame.General;
+                }
+                default: {
+                    return null;
+                }
+            }
+        }
+
+        @Override
+        public int getDefaultStatusFramePeriod(StatusFrame frame) {
+            return CANDeviceType.TalonSRX.getDefaultStatusFramePeriod(frame);
+        }
+
+        @Override
+        public int getStatusFramePeriod(StatusFrame frame) {
+            Integer period = PERIODS.get(frame);
+
+            return (period == null) ? getDefaultStatusFramePeriod(frame) : period;
+        }
+
+        @Override
+        public void setStatusFramePeriod(StatusFrame frame, int period_ms) {
+            PERIODS.put(frame, period_ms);
+            CALLS.add(frame + " " + period_ms);
+        }
+
+        private String lastCall() {
+            return CALLS.get(CALLS.size() - 1);
+        }
+    }
+
+
+
+    @Test
+    public void shortestPeriodWins() {
+        StatusFrameManager manager = new StatusFrameManager();
+        RecordingSink device = new RecordingSink();
+
+        manager.register(device, 0.015, StatusSignal.Position);
+        assertEquals("Feedback 15", device.lastCall());
+
+        manager.register(device, 0.005, StatusSignal.Velocity);
+        assertEquals("Feedback 5", device.lastCall());
+
+        // slower than what's already there, so nothing changes
+        manager.register(device, 0.05, StatusSignal.Current);
+        assertEquals(2, device.CALLS.size());
+        assertEquals(5, manager.getPeriod(device, StatusFrame.Feedback));
+        assertEquals(5, device.getStatusFramePeriod(StatusFrame.Feedback));
+    }
+
+    @Test
+    public void onlyChangedPeriodsAreWritten() {
+        StatusFrameManager manager = new StatusFrameManager();
+        RecordingSink device = new RecordingSink();
+
+        // already at the 20 ms default
+        manager.register(device, 0.02, StatusSignal.Position);
+        assertEquals(0, device.CALLS.size());
+        assertEquals(0, manager.getWrites());
+
+        manager.register(device, 0.008, StatusSignal.Voltage);
+        assertEquals(1, device.CALLS.size());
+        assertEquals("General 8", device.lastCall());
+
+        // neither frame changes
+        manager.register(device, 0.02, StatusSignal.Velocity);
+        manager.setBudget(0.6);
+        assertEquals(1, device.CALLS.size());
+        assertEquals(1, manager.getWrites());
+    }
+
+    @Test
+    public void periodsAreSeededFromTheDevice() {
+        StatusFrameManager manager = new StatusFrameManager();
+        RecordingSink device = new RecordingSink();
+
+        // something else already changed it from the 10 ms default
+        device.setStatusFramePeriod(StatusFrame.General, 5);
+        device.CALLS.clear();
+
+        // lands on the default, which isn't what the device is at
+        manager.register(device, 0.01, StatusSignal.Voltage);
+        assertEquals(1, device.CALLS.size());
+        assertEquals(10, device.getStatusFramePeriod(StatusFrame.General));
+    }
+
+    @Test
+    public void unregisterPutsTheDefaultBack() {
+        StatusFrameManager manager = new StatusFrameManager();
+        RecordingSink device = new RecordingSink();
+
+        StatusFrameManager.Request fast = manager.register(device, 0.005, StatusSignal.Position);
+        StatusFrameManager.Request slow = manager.register(device, 0.1, StatusSignal.Velocity);
+        assertEquals(5, device.getStatusFramePeriod(StatusFrame.Feedback));
+
+        manager.unregister(fast);
+        assertEquals(100, device.getStatusFramePeriod(StatusFrame.Feedback));
+
+        manager.unregister(slow);
+        assertEquals("Feedback 20", device.lastCall());
+        assertEquals(20, manager.getPeriod(device, StatusFrame.Feedback));
+    }
+
+    @Test
+    public void periodsAreStretchedToFitTheBudget() {
+        // one frame every 5 ms is 25.6 kbit/s, so two don't fit in 50
+        StatusFrameManager manager = new StatusFrameManager(0.05);
+        RecordingSink device = new RecordingSink();
+
+        StatusFrameManager.Request request = manager.register(
+            device, 0.005, StatusSignal.Position, StatusSignal.Voltage
+        );
+
+        assertTrue(manager.getStretch() > 1);
+        assertTrue(manager.getUtilization() <= 0.05);
+        assertFalse(manager.isOverBudget());
+        assertFalse(request.isSatisfied());
+
+        // stretched by the same factor
+        int feedback = device.getStatusFramePeriod(StatusFrame.Feedback);
+        assertTrue(feedback > 5);
+        assertEquals(feedback, device.getStatusFramePeriod(StatusFrame.General));
+
+        // room for it again
+        manager.setBudget(0.5);
+        assertEquals(1, manager.getStretch(), 0);
+        assertTrue(request.isSatisfied());
+        assertEquals(5, device.getStatusFramePeriod(StatusFrame.Feedback));
+    }
+
+    @Test
+    public void overBudgetIsReported() {
+        // two frames at MAX_PERIOD are still about 1 kbit/s
+        StatusFrameManager manager = new StatusFrameManager(0.001);
+        RecordingSink device = new RecordingSink();
+
+        manager.register(device, 0.005, StatusSignal.Position, StatusSignal.Voltage);
+
+        assertTrue(manager.isOverBudget());
+        assertTrue(manager.getUtilization() > manager.getBudget());
+        assertEquals(StatusFrameManager.MAX_PERIOD, device.getStatusFramePeriod(StatusFrame.Feedback));
+        assertEquals(StatusFrameManager.MAX_PERIOD, device.getStatusFramePeriod(StatusFrame.General));
+
+        manager.setBudget(0.5);
+        assertFalse(manager.isOverBudget());
+    }
+}
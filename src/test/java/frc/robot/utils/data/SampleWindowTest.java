@@ -0,0 +1,47 @@
+package frc.robot.utils.data;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+
+
+public class SampleWindowTest {
+    @Test
+    public void oldestIsReplacedOnceFull() {
+        SampleWindow window = new SampleWindow(3, 2);
+
+        for (int i = 1; i <= 4; i++) {
+            window.add(i, i * 10);
+        }
+
+        assertTrue(window.isFilled());
+        assertEquals(2, window.get(0, 0), 0);
+        assertEquals(40, window.getNewest(1), 0);
+        assertEquals(3, window.getMean(0), 0);
+
+        double[] copy = new double[6];
+        assertEquals(3, window.copyTo(copy));
+        assertArrayEquals(new double[] {2, 20, 3, 30, 4, 40}, copy, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addingTwoValuesNeedsTwoChannels() {
+        new SampleWindow(3, 3).add(1, 2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addingThreeValuesNeedsThreeChannels() {
+        new SampleWindow(3, 2).add(1, 2, 3);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void meanOfAChannelThatIsntThere() {
+        SampleWindow window = new SampleWindow(3, 2);
+        window.add(1, 2);
+
+        window.getMean(2);
+    }
+}
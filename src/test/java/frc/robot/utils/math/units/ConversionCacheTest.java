@@ -0,0 +1,94 @@
+package frc.robot.utils.math.units;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.robot.utils.math.units.BaseUnit.Dimension;
+
+
+
+public class ConversionCacheTest {
+    @Test
+    public void structurallyEqualUnitsShareEntries() {
+        ConversionCache cache = new ConversionCache(4);
+
+        // built separately (and not interned), but the same unit
+        Unit ftPerS = new Unit(new BaseUnit[] {Units.FT, Units.S}, new int[] {1, -1}, 1);
+        Unit ftPerS2 = new Unit(new BaseUnit[] {Units.S, Units.FT}, new int[] {-1, 1}, 1);
+        assertNotSame(ftPerS, ftPerS2);
+
+        assertTrue(Double.isNaN(cache.get(ftPerS, Units.M_PER_S)));
+        cache.put(ftPerS, Units.M_PER_S, ftPerS.per(Units.M_PER_S), BaseUnit.getConversionVersion());
+
+        assertEquals(ftPerS.per(Units.M_PER_S), cache.get(ftPerS2, Units.M_PER_S), 0);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        // the other way around is a different conversion
+        assertTrue(Double.isNaN(cache.get(Units.M_PER_S, ftPerS)));
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        ConversionCache cache = new ConversionCache(2);
+
+        Unit in = Units.IN.getUnit();
+        Unit ft = Units.FT.getUnit();
+        Unit cm = Units.CM.getUnit();
+        Unit m = Units.M.getUnit();
+
+        // after Units is loaded, since making its BaseUnits changes the version
+        int version = BaseUnit.getConversionVersion();
+
+        cache.put(in, ft, 12, version);
+        cache.put(cm, m, 100, version);
+
+        // in -> ft is now the most recently used
+        assertEquals(12, cache.get(in, ft), 0);
+
+        cache.put(in, m, 39.37, version);
+
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertTrue(Double.isNaN(cache.get(cm, m)));
+        assertEquals(12, cache.get(in, ft), 0);
+        assertEquals(39.37, cache.get(in, m), 0);
+    }
+
+    @Test
+    public void changingAConversionEmptiesIt() {
+        ConversionCache cache = new ConversionCache(4);
+        BaseUnit thing = new BaseUnit(Dimension.Length, 2, "thing");
+        int version = BaseUnit.getConversionVersion();
+
+        cache.put(thing.getUnit(), Units.IN.getUnit(), thing.per(Units.IN), version);
+        assertEquals(1, cache.size());
+
+        thing.setPerStandard(4);
+
+        assertTrue(Double.isNaN(cache.get(thing.getUnit(), Units.IN.getUnit())));
+        assertEquals(0, cache.size());
+
+        // worked out before the change, so it isn't kept
+        cache.put(thing.getUnit(), Units.IN.getUnit(), 2, version);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void perGoesThroughTheGlobalCache() {
+        ConversionCache cache = ConversionCache.getInstance();
+        // rad/(100 ms), like a Talon velocity
+        Unit radPer100ms = new Unit(new BaseUnit[] {Units.RAD, Units.MS}, new int[] {1, -1}, 0.01);
+
+        radPer100ms.per(Units.RAD_PER_S);
+        long hits = cache.getHits();
+
+        double per = radPer100ms.per(Units.RAD_PER_S);
+
+        assertEquals(hits + 1, cache.getHits());
+        assertEquals(0.1, per, 1e-12);
+    }
+}